@@ -23,9 +23,13 @@ public class SecurityConfig {
     @Value("${auth.internal.secret}")
     private String internalSecret;
 
+    // BCrypt 强度，调整后存量哈希在用户下次登录时重新计算
+    @Value("${auth.password.strength:10}")
+    private int passwordStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(passwordStrength);
     }
 
     @Bean
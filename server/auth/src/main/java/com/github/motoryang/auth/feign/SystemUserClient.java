@@ -5,6 +5,8 @@ import com.github.motoryang.common.core.result.RestResult;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.List;
 
@@ -20,6 +22,15 @@ public interface SystemUserClient {
     @GetMapping("/user/username/{username}")
     RestResult<UserAuthInfo> getUserByUsername(@PathVariable String username);
 
+    /**
+     * 替换密码哈希（仅当当前哈希仍为 currentHash 时生效，用于登录时按新强度重新哈希）
+     */
+    @PutMapping("/user/{id}/password-hash")
+    RestResult<Boolean> upgradePasswordHash(@PathVariable String id, @RequestBody PasswordHashUpgrade upgrade);
+
+    record PasswordHashUpgrade(String currentHash, String newHash) {
+    }
+
     record UserAuthInfo(
             String id,
             String username,
@@ -21,6 +21,11 @@ public class SystemUserClientFallback implements FallbackFactory<SystemUserClien
             public RestResult<UserAuthInfo> getUserByUsername(String username) {
                 return RestResult.fail(503, "系统服务暂不可用");
             }
+
+            @Override
+            public RestResult<Boolean> upgradePasswordHash(String id, PasswordHashUpgrade upgrade) {
+                return RestResult.fail(503, "系统服务暂不可用");
+            }
         };
     }
 }
@@ -0,0 +1,38 @@
+package com.github.motoryang.auth.message.consumer;
+
+import com.github.motoryang.auth.message.model.UserChangeEvent;
+import com.github.motoryang.auth.user.UserLookup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+
+import java.util.function.Consumer;
+
+/**
+ * 用户消息消费者
+ */
+@Slf4j
+@Configuration
+public class UserMessageConsumer {
+
+    private final UserLookup userLookup;
+
+    public UserMessageConsumer(UserLookup userLookup) {
+        this.userLookup = userLookup;
+    }
+
+    @Bean
+    Consumer<Message<UserChangeEvent>> userSync() {
+        return message -> {
+            UserChangeEvent event = message.getPayload();
+            log.debug("[message-consumer-userSync] 用户变更: {}", event);
+            if (event.all()) {
+                userLookup.invalidateAll();
+            } else if (event.userIds() != null) {
+                userLookup.invalidate(event.userIds());
+            }
+        };
+    }
+
+}
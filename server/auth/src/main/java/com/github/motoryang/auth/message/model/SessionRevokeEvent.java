@@ -0,0 +1,19 @@
+package com.github.motoryang.auth.message.model;
+
+/**
+ * 会话吊销事件
+ * <p>
+ * 登录、刷新、登出时广播，网关据此吊销会话纪元小于 minValidEpoch 的访问令牌
+ *
+ * @param userId        用户ID
+ * @param minValidEpoch 仍然有效的最小会话纪元
+ * @param seq           全局递增序号，网关据此发现丢失的事件
+ * @param devices       仍在线的设备会话数；大于 1 时最小纪元之上可能存在已吊销的纪元，网关不能只按下界放行
+ */
+public record SessionRevokeEvent(
+        String userId,
+        long minValidEpoch,
+        long seq,
+        int devices
+) {
+}
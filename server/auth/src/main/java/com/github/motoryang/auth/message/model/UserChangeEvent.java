@@ -0,0 +1,15 @@
+package com.github.motoryang.auth.message.model;
+
+import java.util.List;
+
+/**
+ * 用户认证信息变更事件（由 system 服务在用户、角色或权限变更提交后广播）
+ *
+ * @param userIds 受影响的用户ID，all 为 true 时忽略
+ * @param all     角色 / 权限定义变更，全部失效
+ */
+public record UserChangeEvent(
+        List<String> userIds,
+        boolean all
+) {
+}
@@ -0,0 +1,36 @@
+package com.github.motoryang.auth.message.producer;
+
+import com.github.motoryang.auth.message.model.SessionRevokeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 会话事件生产者
+ */
+@Slf4j
+@Component
+public class SessionEventProducer {
+
+    private final StreamBridge streamBridge;
+
+    public SessionEventProducer(StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    public void publishRevoke(SessionRevokeEvent event) {
+        log.debug("[message-producer-sessionSync] 发送会话吊销事件: {}", event);
+        Message<SessionRevokeEvent> message = MessageBuilder.withPayload(event).build();
+        // 发送失败不影响登录流程：网关依靠序号缺口或纪元过期回退到 Redis 校验
+        try {
+            if (!streamBridge.send("sessionSync-out-0", message)) {
+                log.warn("[message-producer-sessionSync] 会话吊销事件发送失败: {}", event);
+            }
+        } catch (Exception e) {
+            log.warn("[message-producer-sessionSync] 会话吊销事件发送失败: {}", event, e);
+        }
+    }
+
+}
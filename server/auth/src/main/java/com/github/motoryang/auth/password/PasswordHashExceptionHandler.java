@@ -0,0 +1,28 @@
+package com.github.motoryang.auth.password;
+
+import com.github.motoryang.common.core.result.RestResult;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 密码哈希过载处理：返回 429 + Retry-After，优先于通用的业务异常处理（其 HTTP 状态恒为 200）
+ */
+@Slf4j
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class PasswordHashExceptionHandler {
+
+    @ExceptionHandler(PasswordHashRejectedException.class)
+    public RestResult<Void> handleRejected(PasswordHashRejectedException e, HttpServletResponse response) {
+        log.warn("密码哈希队列已满，拒绝请求: retryAfter={}", e.getRetryAfter());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter().toSeconds()));
+        return RestResult.fail(e.getCode(), e.getMessage());
+    }
+}
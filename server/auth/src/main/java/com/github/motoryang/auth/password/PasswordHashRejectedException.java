@@ -0,0 +1,28 @@
+package com.github.motoryang.auth.password;
+
+import com.github.motoryang.common.core.exception.BusinessException;
+import com.github.motoryang.common.core.result.ResultCode;
+import lombok.Getter;
+
+import java.io.Serial;
+import java.time.Duration;
+
+/**
+ * 密码哈希队列已满，请求被拒绝（HTTP 429）
+ */
+@Getter
+public class PasswordHashRejectedException extends BusinessException {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 建议客户端重试的等待时间
+     */
+    private final transient Duration retryAfter;
+
+    public PasswordHashRejectedException(Duration retryAfter) {
+        super(ResultCode.TOO_MANY_REQUESTS, "登录人数较多，请稍后重试");
+        this.retryAfter = retryAfter;
+    }
+}
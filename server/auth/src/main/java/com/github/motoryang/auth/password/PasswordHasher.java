@@ -0,0 +1,166 @@
+package com.github.motoryang.auth.password;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 密码哈希执行器
+ * <p>
+ * BCrypt 是纯 CPU 计算，直接在请求的虚拟线程上执行时，集中登录会同时占满所有核心，
+ * 其他认证请求（刷新、登出）随之排队。这里把哈希计算交给按核数固定大小的平台线程池，
+ * 等待队列有界：队列已满时立即以 {@link PasswordHashRejectedException}（429）拒绝，而不是让请求越堆越多。
+ * <p>
+ * 哈希强度由 auth.password.strength 配置，登录成功且存量哈希强度与配置不一致时，
+ * 可通过 {@link #needsRehash} / {@link #encode} 在后台重新哈希，逐步收敛到新的强度。
+ * <p>
+ * 指标：auth.password.hash（执行耗时，op 标签区分 matches / encode）、
+ * auth.password.hash.wait（排队耗时）、auth.password.hash.rejected（拒绝次数）、auth.password.hash.queue（队列深度）
+ */
+@Slf4j
+@Component
+public class PasswordHasher {
+
+    @Value("${auth.password.threads:0}")
+    private int threads;
+
+    @Value("${auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${auth.password.strength:10}")
+    private int strength;
+
+    @Resource
+    private PasswordEncoder passwordEncoder;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer matchesTimer;
+    private Timer encodeTimer;
+    private Timer waitTimer;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                Thread.ofPlatform().name("password-hash-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .tag("op", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .tag("op", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("auth.password.hash.wait")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejectedCounter = meterRegistry.counter("auth.password.hash.rejected");
+        Gauge.builder("auth.password.hash.queue", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        log.info("密码哈希执行器已启动: threads={}, queueCapacity={}, strength={}", poolSize, queueCapacity, strength);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 校验明文密码与存量哈希是否匹配
+     *
+     * @throws PasswordHashRejectedException 哈希队列已满
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 按当前配置的强度计算哈希
+     *
+     * @throws PasswordHashRejectedException 哈希队列已满
+     */
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 存量哈希的强度是否与当前配置不一致（升高或降低都需要重新哈希）
+     */
+    public boolean needsRehash(String encodedPassword) {
+        // BCrypt 格式：$2a$10$...，第 4、5 位是强度（BCryptPasswordEncoder#upgradeEncoding 只识别升高）
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return true;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 队列是否还有空余（后台重新哈希只在不挤占登录时进行）
+     */
+    public boolean hasSpareCapacity() {
+        return executor.getQueue().isEmpty();
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return timer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashRejectedException(retryAfter());
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码哈希被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("密码哈希失败", e.getCause());
+        }
+    }
+
+    /**
+     * 按当前平均耗时估算排空队列所需的时间
+     */
+    private Duration retryAfter() {
+        double meanMillis = matchesTimer.mean(TimeUnit.MILLISECONDS);
+        long drainMillis = (long) (meanMillis * executor.getQueue().size() / executor.getMaximumPoolSize());
+        return Duration.ofSeconds(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(drainMillis) + 1));
+    }
+}
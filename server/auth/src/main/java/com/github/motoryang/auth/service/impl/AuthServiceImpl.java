@@ -1,30 +1,33 @@
 package com.github.motoryang.auth.service.impl;
 
 import com.github.motoryang.auth.feign.SystemUserClient;
+import com.github.motoryang.auth.feign.SystemUserClient.PasswordHashUpgrade;
 import com.github.motoryang.auth.feign.SystemUserClient.UserAuthInfo;
+import com.github.motoryang.auth.message.model.SessionRevokeEvent;
+import com.github.motoryang.auth.message.producer.SessionEventProducer;
 import com.github.motoryang.auth.model.dto.LoginDTO;
 import com.github.motoryang.auth.model.dto.RefreshTokenDTO;
 import com.github.motoryang.auth.model.vo.TokenVO;
+import com.github.motoryang.auth.password.PasswordHasher;
 import com.github.motoryang.auth.service.IAuthService;
+import com.github.motoryang.auth.session.SessionChange;
+import com.github.motoryang.auth.session.SessionStore;
+import com.github.motoryang.auth.user.UserLookup;
 import com.github.motoryang.common.core.constants.Constants;
 import com.github.motoryang.common.core.exception.BusinessException;
 import com.github.motoryang.common.core.result.RestResult;
 import com.github.motoryang.common.core.result.ResultCode;
+import com.github.motoryang.common.security.utils.JwtKeyRing;
+import com.github.motoryang.common.security.utils.JwtToken;
 import com.github.motoryang.common.security.utils.JwtUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.connection.StringRedisConnection;
-import org.springframework.data.redis.core.RedisCallback;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.Objects;
 
 /**
  * 认证服务实现
@@ -35,12 +38,18 @@ import java.util.Objects;
 public class AuthServiceImpl implements IAuthService {
 
     private final SystemUserClient systemUserClient;
-    private final PasswordEncoder passwordEncoder;
-    private final StringRedisTemplate redisTemplate;
+    private final UserLookup userLookup;
+    private final PasswordHasher passwordHasher;
+    private final SessionStore sessionStore;
+    private final SessionEventProducer sessionEventProducer;
 
     @Value("${auth.jwt.secret}")
     private String jwtSecret;
 
+    // 轮换前的旧密钥，其签发的令牌在过期前仍可校验
+    @Value("${auth.jwt.retired-secrets:}")
+    private List<String> retiredSecrets;
+
     @Value("${auth.jwt.access-token-expire}")
     private Duration accessTokenExpire;
 
@@ -50,7 +59,7 @@ public class AuthServiceImpl implements IAuthService {
     @Override
     public TokenVO login(LoginDTO dto) {
         // 1. 调用 system 服务获取用户信息
-        RestResult<UserAuthInfo> result = systemUserClient.getUserByUsername(dto.username());
+        RestResult<UserAuthInfo> result = userLookup.getUserByUsername(dto.username());
         if (!result.isSuccess() || result.data() == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
@@ -62,56 +71,53 @@ public class AuthServiceImpl implements IAuthService {
             throw new BusinessException(ResultCode.USER_DISABLED);
         }
 
-        // 3. 校验密码
-        if (!passwordEncoder.matches(dto.password(), user.password())) {
+        // 3. 校验密码（在专用的哈希线程池中执行，过载时直接返回 429）
+        if (!passwordHasher.matches(dto.password(), user.password())) {
             throw new BusinessException(ResultCode.USER_PASSWORD_ERROR);
         }
+        rehashIfNeeded(user.id(), dto.password(), user.password());
 
-        // 4. 生成token并存入Redis（Token 中携带角色信息）
-        TokenVO tokenVO = generateTokens(user.id(), user.username(), user.roles());
-        saveTokenToRedis(user.id(), tokenVO, user.permissions());
+        // 4. 写入会话并以分配的纪元生成token（Token 中携带角色信息，会话纪元即设备会话ID）
+        SessionChange change = sessionStore.open(user.id(), user.permissions(), refreshTokenExpire);
+        // 被淘汰会话的访问令牌随之失效
+        publishSessionChange(user.id(), change);
 
-        return tokenVO;
+        return generateTokens(user.id(), user.username(), user.roles(), change.epoch());
     }
 
     @Override
     public TokenVO refresh(RefreshTokenDTO dto) {
         String refreshToken = dto.refreshToken();
 
-        // 1. 校验 refresh token
-        if (!JwtUtils.validateToken(refreshToken, jwtSecret)) {
-            throw new BusinessException(ResultCode.TOKEN_INVALID);
-        }
-
-        // 2. 检查 token 类型
-        String tokenType = JwtUtils.getTokenType(refreshToken, jwtSecret);
-        if (!JwtUtils.TOKEN_TYPE_REFRESH.equals(tokenType)) {
+        // 1. 校验 refresh token（只校验一次签名，后续直接读取解析结果）
+        JwtToken parsed;
+        try {
+            parsed = JwtUtils.parse(refreshToken, keyRing());
+        } catch (Exception e) {
             throw new BusinessException(ResultCode.TOKEN_INVALID);
         }
 
-        // 3. 比对和Redis中的Token是否一致
-        boolean isMatch = Objects.equals(
-                redisTemplate.opsForValue()
-                        .get(Constants.REDIS_REFRESH_TOKEN_KEY + JwtUtils.getUserId(refreshToken, jwtSecret)),
-                dto.refreshToken());
-        if (!isMatch) {
+        // 2. 检查 token 类型（会话纪元标识刷新令牌所属的设备会话）
+        if (!parsed.isRefreshToken() || !parsed.hasSessionEpoch()) {
             throw new BusinessException(ResultCode.TOKEN_INVALID);
         }
 
-        String username = JwtUtils.getUsername(refreshToken, jwtSecret);
-
-        // 4. 重新获取用户信息（包含最新的角色和权限）
-        RestResult<UserAuthInfo> result = systemUserClient.getUserByUsername(username);
+        // 3. 重新获取用户信息（包含最新的角色和权限）
+        RestResult<UserAuthInfo> result = userLookup.getUserByUsername(parsed.username());
         if (!result.isSuccess() || result.data() == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
         }
         UserAuthInfo user = result.data();
 
-        // 5. 生成新的Token并存入redis
-        TokenVO tokenVO = generateTokens(user.id(), user.username(), user.roles());
-        saveTokenToRedis(user.id(), tokenVO, user.permissions());
+        // 4. 刷新令牌所属会话仍在时原子替换为新纪元，再以新纪元生成新的Token
+        SessionChange change = sessionStore.replace(parsed.userId(), parsed.sessionEpoch(), user.permissions(),
+                refreshTokenExpire);
+        if (change == null) {
+            throw new BusinessException(ResultCode.TOKEN_INVALID);
+        }
+        publishSessionChange(parsed.userId(), change);
 
-        return tokenVO;
+        return generateTokens(parsed.userId(), user.username(), user.roles(), change.epoch());
     }
 
     @Override
@@ -120,41 +126,54 @@ public class AuthServiceImpl implements IAuthService {
             return;
         }
 
-        // 将token、权限缓存从Redis移除
+        // 只移除该令牌所属设备的会话，其他设备保持登录
         try {
-            String userId = JwtUtils.getUserId(accessToken, jwtSecret);
-            redisTemplate.delete(Constants.REDIS_TOKEN_KEY + userId);
-            redisTemplate.delete(Constants.REDIS_REFRESH_TOKEN_KEY + userId);
-            redisTemplate.delete(Constants.REDIS_USER_PERMS_KEY + userId);
+            JwtToken parsed = JwtUtils.parse(accessToken, keyRing());
+            if (!parsed.hasSessionEpoch()) {
+                return;
+            }
+            SessionChange change = sessionStore.close(parsed.userId(), parsed.sessionEpoch(), refreshTokenExpire);
+            if (change != null) {
+                publishSessionChange(parsed.userId(), change);
+            }
         } catch (Exception e) {
             log.warn("Token 已过期或无效: {}", e.getMessage());
         }
     }
 
-    private TokenVO generateTokens(String userId, String username, List<String> roles) {
-        String accessToken = JwtUtils.createAccessToken(userId, username, roles, jwtSecret, accessTokenExpire.toMillis());
-        String refreshToken = JwtUtils.createRefreshToken(userId, username, jwtSecret, refreshTokenExpire.toMillis());
+    /**
+     * 存量哈希强度与配置不一致时在后台重新哈希，不阻塞本次登录；哈希队列繁忙时跳过，留待下次登录
+     */
+    private void rehashIfNeeded(String userId, String rawPassword, String currentHash) {
+        if (!passwordHasher.needsRehash(currentHash) || !passwordHasher.hasSpareCapacity()) {
+            return;
+        }
+        Thread.ofVirtual().name("password-rehash").start(() -> {
+            try {
+                String newHash = passwordHasher.encode(rawPassword);
+                systemUserClient.upgradePasswordHash(userId, new PasswordHashUpgrade(currentHash, newHash));
+            } catch (Exception e) {
+                log.warn("密码重新哈希失败: userId={}, {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    private JwtKeyRing keyRing() {
+        return JwtUtils.keyRing(jwtSecret, retiredSecrets);
+    }
+
+    private TokenVO generateTokens(String userId, String username, List<String> roles, long sessionEpoch) {
+        JwtKeyRing keyRing = keyRing();
+        String accessToken = JwtUtils.createAccessToken(userId, username, roles, sessionEpoch,
+                keyRing, accessTokenExpire.toMillis());
+        String refreshToken = JwtUtils.createRefreshToken(userId, username, sessionEpoch,
+                keyRing, refreshTokenExpire.toMillis());
 
         return new TokenVO(accessToken, refreshToken, accessTokenExpire.toSeconds());
     }
 
-    private void saveTokenToRedis(String userId, TokenVO tokenVO, List<String> permissions) {
-        var tokenKey = Constants.REDIS_TOKEN_KEY + userId;
-        var refreshKey = Constants.REDIS_REFRESH_TOKEN_KEY + userId;
-        var permsKey = Constants.REDIS_USER_PERMS_KEY + userId;
-
-        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
-            var stringConn = (StringRedisConnection) connection;
-            stringConn.setEx(tokenKey, (int) (accessTokenExpire.toSeconds()), tokenVO.accessToken());
-            stringConn.setEx(refreshKey, (int) (refreshTokenExpire.toSeconds()), tokenVO.refreshToken());
-
-            // 存储权限列表到 Redis Set
-            if (!CollectionUtils.isEmpty(permissions)) {
-                stringConn.del(permsKey);
-                stringConn.sAdd(permsKey, permissions.toArray(new String[0]));
-                stringConn.expire(permsKey, (int) (accessTokenExpire.toSeconds()));
-            }
-            return null;
-        });
+    private void publishSessionChange(String userId, SessionChange change) {
+        sessionEventProducer.publishRevoke(new SessionRevokeEvent(userId, change.minValidEpoch(), change.seq(),
+                change.devices()));
     }
 }
@@ -0,0 +1,12 @@
+package com.github.motoryang.auth.session;
+
+/**
+ * 会话写入结果，用于签发令牌与广播会话吊销事件
+ *
+ * @param epoch         登录、刷新分配的新会话纪元（登出为 0）
+ * @param minValidEpoch 写入后仍然有效的最小会话纪元
+ * @param seq           会话事件全局序号
+ * @param devices       写入后仍在线的设备会话数（登出为 0）
+ */
+public record SessionChange(long epoch, long minValidEpoch, long seq, int devices) {
+}
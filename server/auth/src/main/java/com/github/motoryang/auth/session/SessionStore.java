@@ -0,0 +1,160 @@
+package com.github.motoryang.auth.session;
+
+import com.github.motoryang.common.core.constants.Constants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户会话存储
+ * <p>
+ * 每个用户一个 Redis 哈希 uni:auth:session:{userId}，会话纪元即设备会话ID：
+ * a:{epoch} 访问令牌、r:{epoch} 刷新令牌、perms 权限编码（逗号分隔）、min 仍有效的最小纪元、devices 在线设备会话数。
+ * 纪元按用户递增且令牌带签名，a:/r: 字段只标记该纪元的令牌仍有效，不保存令牌本身。
+ * 登录、刷新、登出各是一次 Lua 脚本调用，纪元分配、写入、淘汰与事件序号递增在 Redis 中原子完成，
+ * 令牌在脚本返回新纪元后签发。
+ * 同一用户最多保留 auth.session.max-devices 个会话，超出时淘汰纪元最小（最早登录）的会话；
+ * 登出只移除当前设备的会话
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionStore {
+
+    /**
+     * KEYS[1]：会话 key，KEYS[2]：纪元 key，KEYS[3]：事件序号 key
+     * ARGV：权限、最大会话数、会话过期时间（毫秒，纪元 key 同寿命）、被替换的纪元（登录为空）
+     * 返回 {新纪元, 最小有效纪元, 事件序号, 在线设备会话数}；被替换的会话已不存在（刷新令牌已被使用、已登出或已被淘汰）时返回空表
+     */
+    private static final RedisScript<List> OPEN_SCRIPT = new DefaultRedisScript<>("""
+            local key = KEYS[1]
+            if ARGV[4] ~= '' then
+                if redis.call('HEXISTS', key, 'r:' .. ARGV[4]) == 0 then
+                    return {}
+                end
+                redis.call('HDEL', key, 'a:' .. ARGV[4], 'r:' .. ARGV[4])
+            end
+            local epoch = redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[3])
+            redis.call('HSET', key, 'a:' .. epoch, '1', 'r:' .. epoch, '1', 'perms', ARGV[1])
+            local epochs = {}
+            for _, field in ipairs(redis.call('HKEYS', key)) do
+                if string.sub(field, 1, 2) == 'r:' then
+                    table.insert(epochs, tonumber(string.sub(field, 3)))
+                end
+            end
+            table.sort(epochs)
+            local excess = #epochs - tonumber(ARGV[2])
+            for i = 1, excess do
+                redis.call('HDEL', key, 'a:' .. epochs[i], 'r:' .. epochs[i])
+            end
+            local minEpoch = epochs[math.max(excess, 0) + 1]
+            local devices = #epochs - math.max(excess, 0)
+            redis.call('HSET', key, 'min', minEpoch, 'devices', devices)
+            redis.call('PEXPIRE', key, ARGV[3])
+            local seq = redis.call('INCR', KEYS[3])
+            return {tostring(epoch), tostring(minEpoch), tostring(seq), tostring(devices)}
+            """, List.class);
+
+    /**
+     * KEYS[1]：会话 key，KEYS[2]：纪元 key，KEYS[3]：事件序号 key；ARGV[1]：登出的纪元，ARGV[2]：纪元 key 过期时间（毫秒）
+     * 返回 {0, 最小有效纪元, 事件序号, 在线设备会话数}；该纪元的会话已不存在时返回空表。
+     * 最后一个会话登出时删除会话并推进纪元，此前签发的令牌全部低于最小有效纪元
+     */
+    private static final RedisScript<List> CLOSE_SCRIPT = new DefaultRedisScript<>("""
+            local key = KEYS[1]
+            if redis.call('HEXISTS', key, 'r:' .. ARGV[1]) == 0 then
+                return {}
+            end
+            redis.call('HDEL', key, 'a:' .. ARGV[1], 'r:' .. ARGV[1])
+            local epochs = {}
+            for _, field in ipairs(redis.call('HKEYS', key)) do
+                if string.sub(field, 1, 2) == 'r:' then
+                    table.insert(epochs, tonumber(string.sub(field, 3)))
+                end
+            end
+            local minEpoch
+            if #epochs == 0 then
+                redis.call('DEL', key)
+                minEpoch = redis.call('INCR', KEYS[2])
+                redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            else
+                table.sort(epochs)
+                minEpoch = epochs[1]
+                redis.call('HSET', key, 'min', minEpoch, 'devices', #epochs)
+            end
+            local seq = redis.call('INCR', KEYS[3])
+            return {'0', tostring(minEpoch), tostring(seq), tostring(#epochs)}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${auth.session.max-devices:1}")
+    private int maxDevices;
+
+    /**
+     * 登录：分配新纪元写入会话，并淘汰超出数量的旧会话（纪元 key 与刷新令牌同寿命，保证仍可能有效的令牌纪元不会回退）
+     *
+     * @return 写入结果，其中 epoch 为签发令牌使用的新纪元
+     */
+    public SessionChange open(String userId, Collection<String> permissions, Duration refreshTokenExpire) {
+        return write(userId, permissions, refreshTokenExpire, "");
+    }
+
+    /**
+     * 刷新：以新纪元替换刷新令牌所属的会话
+     *
+     * @return 刷新令牌已被使用、会话已登出或已被淘汰时返回 null
+     */
+    public SessionChange replace(String userId, long previousEpoch, Collection<String> permissions,
+                                 Duration refreshTokenExpire) {
+        return write(userId, permissions, refreshTokenExpire, String.valueOf(previousEpoch));
+    }
+
+    /**
+     * 登出：只移除该纪元（设备）的会话，其他设备不受影响
+     *
+     * @return 该会话已登出、已被替换或已被淘汰时返回 null
+     */
+    public SessionChange close(String userId, long epoch, Duration refreshTokenExpire) {
+        List<?> result = redisTemplate.execute(CLOSE_SCRIPT,
+                List.of(Constants.REDIS_AUTH_SESSION_KEY + userId,
+                        Constants.REDIS_SESSION_EPOCH_KEY + userId,
+                        Constants.REDIS_SESSION_SEQ_KEY),
+                String.valueOf(epoch),
+                String.valueOf(refreshTokenExpire.toMillis()));
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        return toChange(result);
+    }
+
+    private SessionChange write(String userId, Collection<String> permissions, Duration refreshTokenExpire,
+                                String previousEpoch) {
+        List<?> result = redisTemplate.execute(OPEN_SCRIPT,
+                List.of(Constants.REDIS_AUTH_SESSION_KEY + userId,
+                        Constants.REDIS_SESSION_EPOCH_KEY + userId,
+                        Constants.REDIS_SESSION_SEQ_KEY),
+                permissions == null ? "" : String.join(",", permissions),
+                String.valueOf(Math.max(1, maxDevices)),
+                String.valueOf(refreshTokenExpire.toMillis()),
+                previousEpoch);
+        if (result == null || result.isEmpty()) {
+            return null;
+        }
+        return toChange(result);
+    }
+
+    private static SessionChange toChange(List<?> result) {
+        return new SessionChange(Long.parseLong(String.valueOf(result.get(0))),
+                Long.parseLong(String.valueOf(result.get(1))),
+                Long.parseLong(String.valueOf(result.get(2))),
+                Integer.parseInt(String.valueOf(result.get(3))));
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.motoryang.auth.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.motoryang.auth.feign.SystemUserClient;
+import com.github.motoryang.auth.feign.SystemUserClient.UserAuthInfo;
+import com.github.motoryang.common.core.result.RestResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * system 服务用户认证信息查询
+ * <p>
+ * 同一用户名的并发查询合并为一次 Feign 调用（多标签页同时刷新令牌、集中登录时共享结果）；
+ * 可选地将成功结果保留几秒（auth.user-lookup.ttl），system 服务广播的用户变更事件到达时立即失效，
+ * 事件丢失时最多延迟 ttl 生效。
+ * <p>
+ * 查询次数通过 auth.user.lookup 指标发布，result 标签区分 remote / coalesced / cached，
+ * 后两者即节省的调用次数
+ */
+@Component
+public class UserLookup {
+
+    @Value("${auth.user-lookup.ttl:0s}")
+    private Duration ttl;
+
+    @Value("${auth.user-lookup.max-size:10000}")
+    private long maxSize;
+
+    @Resource
+    private SystemUserClient systemUserClient;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 进行中的查询：username -> 共享结果
+    private final Map<String, CompletableFuture<RestResult<UserAuthInfo>>> inFlight = new ConcurrentHashMap<>();
+
+    // 失效代数：查询期间发生过失效时，结果不写入缓存
+    private final AtomicLong generation = new AtomicLong();
+
+    // 短期保留的查询结果，ttl 为 0 时不启用
+    private Cache<String, RestResult<UserAuthInfo>> recentUsers;
+
+    private Counter remoteCounter;
+    private Counter coalescedCounter;
+    private Counter cachedCounter;
+
+    @PostConstruct
+    public void init() {
+        if (!ttl.isZero() && !ttl.isNegative()) {
+            this.recentUsers = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .build();
+        }
+        this.remoteCounter = meterRegistry.counter("auth.user.lookup", "result", "remote");
+        this.coalescedCounter = meterRegistry.counter("auth.user.lookup", "result", "coalesced");
+        this.cachedCounter = meterRegistry.counter("auth.user.lookup", "result", "cached");
+    }
+
+    /**
+     * 根据用户名获取用户认证信息（语义同 {@link SystemUserClient#getUserByUsername}）
+     */
+    public RestResult<UserAuthInfo> getUserByUsername(String username) {
+        if (recentUsers != null) {
+            RestResult<UserAuthInfo> recent = recentUsers.getIfPresent(username);
+            if (recent != null) {
+                cachedCounter.increment();
+                return recent;
+            }
+        }
+        // 在登记进行中查询之前读取代数，之后发生的失效都会使本次结果不写入缓存
+        long startGeneration = generation.get();
+        CompletableFuture<RestResult<UserAuthInfo>> pending = inFlight.get(username);
+        if (pending == null) {
+            CompletableFuture<RestResult<UserAuthInfo>> created = new CompletableFuture<>();
+            pending = inFlight.putIfAbsent(username, created);
+            if (pending == null) {
+                remoteCounter.increment();
+                return load(username, created, startGeneration);
+            }
+        }
+        coalescedCounter.increment();
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 失效指定用户的保留结果（收到用户变更事件时调用）
+     */
+    public void invalidate(Collection<String> userIds) {
+        generation.incrementAndGet();
+        // 进行中的查询可能早于变更，之后到达的请求重新查询（进行中表按用户名索引，无法只移除指定用户）
+        inFlight.clear();
+        if (recentUsers != null) {
+            Set<String> ids = Set.copyOf(userIds);
+            recentUsers.asMap().values().removeIf(result -> ids.contains(result.data().id()));
+        }
+    }
+
+    /**
+     * 失效全部保留结果（角色 / 权限定义变更）
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        inFlight.clear();
+        if (recentUsers != null) {
+            recentUsers.invalidateAll();
+        }
+    }
+
+    private RestResult<UserAuthInfo> load(String username, CompletableFuture<RestResult<UserAuthInfo>> shared,
+                                          long startGeneration) {
+        // 先移出进行中表再发布结果，之后到达的请求会重新查询而不是拿到已完成的旧结果
+        try {
+            RestResult<UserAuthInfo> result = systemUserClient.getUserByUsername(username);
+            // 只保留成功结果，用户不存在或服务降级不缓存
+            if (recentUsers != null && result.isSuccess() && result.data() != null
+                    && generation.get() == startGeneration) {
+                recentUsers.put(username, result);
+            }
+            inFlight.remove(username, shared);
+            shared.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            inFlight.remove(username, shared);
+            shared.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
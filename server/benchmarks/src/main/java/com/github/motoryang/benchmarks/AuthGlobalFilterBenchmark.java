@@ -0,0 +1,93 @@
+package com.github.motoryang.benchmarks;
+
+import com.github.motoryang.gateway.filter.AuthGlobalFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AuthGlobalFilter.filter 单次请求开销
+ * <p>
+ * 过滤链为空实现，Redis 为内存替身；每次调用都会新建 MockServerWebExchange，其分配计入结果
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthGlobalFilterBenchmark {
+
+    private static final String USER_ID = "019bd2c4-7f3a-7c41-9a55-3b6e0d1f2a90";
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    @Param({"redis", "epoch"})
+    public String revocationMode;
+
+    private AuthGlobalFilter filter;
+    private String bearerToken;
+    private String invalidBearerToken;
+
+    @Setup
+    public void setup() {
+        var meterRegistry = new SimpleMeterRegistry();
+        String token = GatewayFixtures.accessToken(USER_ID, List.of("USER", "AUDITOR"), 1L);
+        Map<String, Map<String, String>> redis = new HashMap<>();
+        redis.put("uni:auth:session:" + USER_ID, Map.of("a:1", "1", "min", "1", "devices", "1", "perms", ""));
+
+        filter = new AuthGlobalFilter();
+        ReflectionTestUtils.setField(filter, "tokenVerifier", GatewayFixtures.tokenVerifier(meterRegistry));
+        ReflectionTestUtils.setField(filter, "sessionEpochRegistry",
+                GatewayFixtures.sessionEpochRegistry(revocationMode, meterRegistry));
+        ReflectionTestUtils.setField(filter, "pathClassifier", GatewayFixtures.pathClassifier());
+        ReflectionTestUtils.setField(filter, "tokenLookup", GatewayFixtures.tokenLookup(redis, meterRegistry));
+        bearerToken = "Bearer " + token;
+        // 签名被篡改的令牌：首次校验失败后进入否定缓存
+        invalidBearerToken = bearerToken.substring(0, bearerToken.length() - 2) + "xx";
+    }
+
+    @Benchmark
+    public Object protectedPath() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/system/user/" + USER_ID + "/roles")
+                .header(HttpHeaders.AUTHORIZATION, bearerToken));
+        filter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public Object rejectedToken() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/system/user/" + USER_ID + "/roles")
+                .header(HttpHeaders.AUTHORIZATION, invalidBearerToken));
+        filter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public Object whitelistedPath() {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/login"));
+        filter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+}
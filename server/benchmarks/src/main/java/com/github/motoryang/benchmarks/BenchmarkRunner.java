@@ -0,0 +1,32 @@
+package com.github.motoryang.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 默认附加 GC profiler，结果中的 gc.alloc.rate.norm 即每次调用的分配字节数。
+ * 支持 JMH 的全部命令行参数，例如只运行权限匹配：
+ * <pre>
+ * mvn -P benchmarks -pl benchmarks -am package
+ * java -jar benchmarks/target/benchmarks.jar PermissionMatch
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.motoryang.benchmarks;
+
+import com.github.motoryang.common.security.utils.JwtUtils;
+import com.github.motoryang.gateway.auth.SessionEpochRegistry;
+import com.github.motoryang.gateway.auth.TokenLookup;
+import com.github.motoryang.gateway.auth.TokenVerifier;
+import com.github.motoryang.gateway.utils.PathClassifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveHashOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试共用的网关组件装配（不启动 Spring 容器，按字段注入后手动初始化）
+ */
+final class GatewayFixtures {
+
+    static final String JWT_SECRET = "UniStackSecretKeyForJwtTokenMustBeAtLeast256Bits!";
+
+    static final List<String> WHITELIST = List.of(
+            "/auth/login",
+            "/auth/refresh",
+            "/auth/captcha",
+            "/system/v3/api-docs",
+            "/auth/v3/api-docs",
+            "/storage/v3/api-docs",
+            "/storage/public/**",
+            "/system/dict/*/items",
+            "/system/config/?ublic"
+    );
+
+    private GatewayFixtures() {
+    }
+
+    static String accessToken(String userId, List<String> roles, long sessionEpoch) {
+        return JwtUtils.createAccessToken(userId, "bench", roles, sessionEpoch,
+                JWT_SECRET, Duration.ofHours(2).toMillis());
+    }
+
+    static TokenVerifier tokenVerifier(MeterRegistry meterRegistry) {
+        TokenVerifier verifier = new TokenVerifier();
+        ReflectionTestUtils.setField(verifier, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(verifier, "retiredSecrets", List.of());
+        ReflectionTestUtils.setField(verifier, "cacheMaxSize", 10_000L);
+        ReflectionTestUtils.setField(verifier, "negativeTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(verifier, "negativeMaxSize", 10_000L);
+        ReflectionTestUtils.setField(verifier, "meterRegistry", meterRegistry);
+        verifier.init();
+        return verifier;
+    }
+
+    static SessionEpochRegistry sessionEpochRegistry(String revocationMode, MeterRegistry meterRegistry) {
+        SessionEpochRegistry registry = new SessionEpochRegistry();
+        ReflectionTestUtils.setField(registry, "revocationMode", revocationMode);
+        ReflectionTestUtils.setField(registry, "epochTtl", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(registry, "epochMaxSize", 100_000L);
+        ReflectionTestUtils.setField(registry, "meterRegistry", meterRegistry);
+        registry.init();
+        registry.onReady();
+        return registry;
+    }
+
+    static TokenLookup tokenLookup(Map<String, Map<String, String>> redis, MeterRegistry meterRegistry) {
+        TokenLookup lookup = new TokenLookup();
+        ReflectionTestUtils.setField(lookup, "ttl", Duration.ZERO);
+        ReflectionTestUtils.setField(lookup, "maxSize", 10_000L);
+        ReflectionTestUtils.setField(lookup, "reactiveStringRedisTemplate", new InMemoryRedisTemplate(redis));
+        ReflectionTestUtils.setField(lookup, "meterRegistry", meterRegistry);
+        lookup.init();
+        return lookup;
+    }
+
+    static PathClassifier pathClassifier() {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("spring.cloud.gateway.whitelist", String.join(",", WHITELIST))));
+        PathClassifier classifier = new PathClassifier();
+        ReflectionTestUtils.setField(classifier, "environment", environment);
+        classifier.init();
+        return classifier;
+    }
+
+    /**
+     * 内存 Redis 替身：只实现哈希的 opsForHash().get / multiGet，同步返回结果，基准只测网关自身开销
+     */
+    static final class InMemoryRedisTemplate extends ReactiveStringRedisTemplate {
+
+        private final ReactiveHashOperations<String, String, String> hashOperations;
+
+        @SuppressWarnings("unchecked")
+        InMemoryRedisTemplate(Map<String, Map<String, String>> hashes) {
+            super(unusedConnectionFactory());
+            this.hashOperations = (ReactiveHashOperations<String, String, String>) Proxy.newProxyInstance(
+                    GatewayFixtures.class.getClassLoader(),
+                    new Class<?>[]{ReactiveHashOperations.class},
+                    (proxy, method, args) -> {
+                        if ("get".equals(method.getName()) && args != null && args.length == 2) {
+                            Map<String, String> hash = hashes.getOrDefault((String) args[0], Map.of());
+                            return Mono.justOrEmpty(hash.get((String) args[1]));
+                        }
+                        if ("multiGet".equals(method.getName()) && args != null && args.length == 2) {
+                            Map<String, String> hash = hashes.getOrDefault((String) args[0], Map.of());
+                            List<String> values = new ArrayList<>();
+                            for (Object field : (Collection<?>) args[1]) {
+                                values.add(hash.get((String) field));
+                            }
+                            return Mono.just(values);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <HK, HV> ReactiveHashOperations<String, HK, HV> opsForHash() {
+            return (ReactiveHashOperations<String, HK, HV>) hashOperations;
+        }
+
+        private static ReactiveRedisConnectionFactory unusedConnectionFactory() {
+            return (ReactiveRedisConnectionFactory) Proxy.newProxyInstance(
+                    GatewayFixtures.class.getClassLoader(),
+                    new Class<?>[]{ReactiveRedisConnectionFactory.class},
+                    (proxy, method, args) -> {
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+}
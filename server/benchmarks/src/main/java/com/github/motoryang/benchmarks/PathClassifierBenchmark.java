@@ -0,0 +1,50 @@
+package com.github.motoryang.benchmarks;
+
+import com.github.motoryang.gateway.utils.PathClassifier;
+import com.github.motoryang.gateway.utils.PathType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路径分类（白名单、静态资源、WebSocket）开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathClassifierBenchmark {
+
+    @Param({
+            "/auth/login",
+            "/storage/public/2024/banner.png",
+            "/static/unistack/avatar/u1.png",
+            "/ws/info",
+            "/system/user/019bd2c4-7f3a-7c41-9a55-3b6e0d1f2a90/roles"
+    })
+    public String path;
+
+    private PathClassifier classifier;
+
+    @Setup
+    public void setup() {
+        classifier = GatewayFixtures.pathClassifier();
+    }
+
+    @Benchmark
+    public PathType classify() {
+        return classifier.classify(path);
+    }
+}
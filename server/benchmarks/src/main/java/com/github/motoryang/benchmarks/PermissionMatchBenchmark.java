@@ -0,0 +1,117 @@
+package com.github.motoryang.benchmarks;
+
+import com.github.motoryang.gateway.handler.PermissionCacheHandler;
+import com.github.motoryang.gateway.handler.PermissionTrie;
+import com.github.motoryang.gateway.handler.RoleRegistry;
+import com.github.motoryang.gateway.messaging.model.ApiPattern;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PermissionCacheHandler.hasAccess（含匹配结果缓存）与 PermissionTrie.match（无缓存）在不同规则规模下的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionMatchBenchmark {
+
+    private static final String[] SERVICES = {"system", "storage", "auth", "monitor"};
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE"};
+    private static final int ROLE_COUNT = 20;
+    private static final int PATH_COUNT = 256;
+
+    @Param({"100", "1000", "10000"})
+    public int ruleCount;
+
+    private PermissionCacheHandler handler;
+    private PermissionTrie trie;
+    private long[] userRoles;
+    private String[] methods;
+    private String[] paths;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        RoleRegistry roleRegistry = new RoleRegistry();
+        Map<String, Set<String>> rules = new HashMap<>(ruleCount * 2);
+        List<ApiPattern> patterns = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            String method = METHODS[i % METHODS.length];
+            String path = rulePath(i);
+            Set<String> roles = Set.of("ROLE" + (i % ROLE_COUNT), "ROLE" + ((i * 7) % ROLE_COUNT));
+            rules.put(method + ":" + path, roles);
+            patterns.add(new ApiPattern(method, path, roles));
+        }
+
+        handler = new PermissionCacheHandler(roleRegistry, new SimpleMeterRegistry());
+        handler.refreshAll(rules);
+        trie = PermissionTrie.compile(patterns, roleRegistry);
+        userRoles = handler.decodeRoles("ROLE3,ROLE11");
+
+        // 请求路径：命中各类规则，并带有高基数的 UUID 段
+        methods = new String[PATH_COUNT];
+        paths = new String[PATH_COUNT];
+        for (int k = 0; k < PATH_COUNT; k++) {
+            int rule = (k * 31) % ruleCount;
+            methods[k] = METHODS[rule % METHODS.length];
+            paths[k] = requestPath(rule);
+        }
+    }
+
+    /**
+     * 规则形态轮换：字面量、单段通配、路径变量、多段通配
+     */
+    private static String rulePath(int i) {
+        String base = "/" + SERVICES[i % SERVICES.length] + "/api/res" + i;
+        return switch (i % 4) {
+            case 0 -> base + "/list";
+            case 1 -> base + "/*";
+            case 2 -> base + "/{id}/detail";
+            default -> base + "/**";
+        };
+    }
+
+    private static String requestPath(int i) {
+        String base = "/" + SERVICES[i % SERVICES.length] + "/api/res" + i;
+        String id = UUID.randomUUID().toString();
+        return switch (i % 4) {
+            case 0 -> base + "/list";
+            case 1 -> base + "/" + id;
+            case 2 -> base + "/" + id + "/detail";
+            default -> base + "/" + id + "/children/" + id;
+        };
+    }
+
+    @Benchmark
+    public boolean hasAccess() {
+        int k = cursor++ & (PATH_COUNT - 1);
+        return handler.hasAccess(userRoles, methods[k], paths[k]);
+    }
+
+    @Benchmark
+    public long[] trieMatch() {
+        int k = cursor++ & (PATH_COUNT - 1);
+        return trie.match(methods[k], paths[k]);
+    }
+}
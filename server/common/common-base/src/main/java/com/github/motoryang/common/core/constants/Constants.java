@@ -14,12 +14,8 @@ public final class Constants {
     public static final String TOKEN_PREFIX = "Bearer ";
 
     /**
-     * 自定义请求头
+     * 自定义请求头（用户上下文见 UserContextCodec.HEADER）
      */
-    public static final String USER_ID_HEADER = "X-User-Id";
-    public static final String USERNAME_HEADER = "X-Username";
-    public static final String USER_ROLES_HEADER = "X-User-Roles";
-    public static final String USER_PERMS_HEADER = "X-User-Perms";
     public static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
 
     /**
@@ -42,10 +38,10 @@ public final class Constants {
     /**
      * Redis key prefixes
      */
-    public static final String REDIS_TOKEN_KEY = "uni:token:";
-    public static final String REDIS_REFRESH_TOKEN_KEY = "uni:refresh:";
     public static final String REDIS_USER_KEY = "uni:user:";
-    public static final String REDIS_USER_PERMS_KEY = "uni:perms:";
     public static final String REDIS_API_KEY = "uni:api:";
+    public static final String REDIS_SESSION_EPOCH_KEY = "uni:session:epoch:";
+    public static final String REDIS_SESSION_SEQ_KEY = "uni:session:seq";
+    public static final String REDIS_AUTH_SESSION_KEY = "uni:auth:session:";
 }
 
@@ -1,10 +1,9 @@
 package com.github.motoryang.common.core.context;
 
-import java.util.Collections;
 import java.util.Set;
 
 /**
- * 登录用户上下文信息
+ * 登录用户上下文信息（不可变，角色与权限集合为只读 Set）
  *
  * @param userId      用户ID
  * @param username    用户名
@@ -18,6 +17,12 @@ public record LoginUser(
         Set<String> permissions
 ) {
 
+    public LoginUser {
+        // 已是不可变 Set（如 UserContextCodec 驻留的集合）时 Set.copyOf 直接返回原实例
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+        permissions = permissions == null ? Set.of() : Set.copyOf(permissions);
+    }
+
     /**
      * 是否拥有指定角色
      *
@@ -25,7 +30,7 @@ public record LoginUser(
      * @return true-拥有，false-没有
      */
     public boolean hasRole(String role) {
-        return roles != null && roles.contains(role);
+        return roles.contains(role);
     }
 
     /**
@@ -35,7 +40,7 @@ public record LoginUser(
      * @return true-拥有至少一个，false-都没有
      */
     public boolean hasAnyRole(String... roles) {
-        if (this.roles == null || this.roles.isEmpty()) {
+        if (this.roles.isEmpty()) {
             return false;
         }
         for (String role : roles) {
@@ -53,7 +58,7 @@ public record LoginUser(
      * @return true-拥有，false-没有
      */
     public boolean hasPermission(String permission) {
-        return permissions != null && permissions.contains(permission);
+        return permissions.contains(permission);
     }
 
     /**
@@ -63,7 +68,7 @@ public record LoginUser(
      * @return true-拥有至少一个，false-都没有
      */
     public boolean hasAnyPermission(String... permissions) {
-        if (this.permissions == null || this.permissions.isEmpty()) {
+        if (this.permissions.isEmpty()) {
             return false;
         }
         for (String permission : permissions) {
@@ -85,6 +90,6 @@ public record LoginUser(
      * 创建空的 LoginUser（用于匿名访问场景）
      */
     public static LoginUser anonymous() {
-        return new LoginUser(null, null, Collections.emptySet(), Collections.emptySet());
+        return new LoginUser(null, null, Set.of(), Set.of());
     }
 }
@@ -0,0 +1,268 @@
+package com.github.motoryang.common.core.context;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 用户上下文信封编解码
+ * <p>
+ * 网关每个请求只写一个 X-User-Context 请求头，内容为 Base64URL(载荷 + HMAC-SHA256 前 16 字节)，密钥为内部密钥。
+ * 载荷：版本(1) | 签发时间(8) | userId | username | 权限块，字符串为 2 字节长度 + UTF-8。
+ * 权限块（角色 + 权限编码）由网关按会话缓存，较大时压缩；下游按权限块字节驻留解码结果，
+ * 相同角色组合的请求共享同一组不可变 Set，校验签名后只需一次查表
+ */
+public final class UserContextCodec {
+
+    public static final String HEADER = "X-User-Context";
+
+    private static final byte VERSION = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 16;
+    private static final byte BLOCK_RAW = 0;
+    private static final byte BLOCK_DEFLATED = 1;
+    // 超过该长度的权限块压缩后传输（权限编码前缀高度重复）
+    private static final int DEFLATE_THRESHOLD = 256;
+    private static final int MAX_INFLATED_LENGTH = 1 << 20;
+    private static final int MAX_INTERNED = 4096;
+
+    private final Mac prototype;
+    private final long maxAgeMillis;
+
+    // 权限块（ISO-8859-1 映射的原始字节）-> 解码结果
+    private final Map<String, Authorities> interned = new ConcurrentHashMap<>();
+
+    /**
+     * @param secret       内部密钥
+     * @param maxAgeMillis 信封有效期，超出（或签发时间超前同样时长）的信封视为无效，0 表示不限制
+     */
+    public UserContextCodec(String secret, long maxAgeMillis) {
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * 编码权限块（网关按会话缓存结果）
+     */
+    public static byte[] encodeAuthorities(Collection<String> roles, Collection<String> permissions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        writeStrings(out, roles);
+        writeStrings(out, permissions);
+        byte[] raw = out.toByteArray();
+        if (raw.length <= DEFLATE_THRESHOLD) {
+            return prepend(BLOCK_RAW, raw);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2);
+            compressed.write(BLOCK_DEFLATED);
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                compressed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 编码并签名上下文信封
+     *
+     * @param userId      用户ID，匿名请求为 null
+     * @param username    用户名
+     * @param authorities {@link #encodeAuthorities} 的结果，匿名请求为 null
+     */
+    public String encode(String userId, String username, byte[] authorities, long issuedAt) {
+        byte[] id = utf8(userId);
+        byte[] name = utf8(username);
+        byte[] block = authorities == null ? new byte[0] : authorities;
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 + 2 + id.length + 2 + name.length + 2 + block.length + MAC_LENGTH);
+        buffer.put(VERSION).putLong(issuedAt);
+        putBytes(buffer, id);
+        putBytes(buffer, name);
+        putBytes(buffer, block);
+        byte[] envelope = buffer.array();
+        int payloadLength = envelope.length - MAC_LENGTH;
+        System.arraycopy(sign(envelope, payloadLength), 0, envelope, payloadLength, MAC_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(envelope);
+    }
+
+    /**
+     * 校验并解码上下文信封
+     *
+     * @return 登录用户（匿名信封的 userId 为 null），签名不符、过期或格式错误时返回 null
+     */
+    public LoginUser decode(String header, long nowMillis) {
+        byte[] envelope;
+        try {
+            envelope = Base64.getUrlDecoder().decode(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        int payloadLength = envelope.length - MAC_LENGTH;
+        if (payloadLength < 1 + 8 + 6 || envelope[0] != VERSION) {
+            return null;
+        }
+        byte[] expected = sign(envelope, payloadLength);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(envelope, payloadLength, envelope.length))) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(envelope, 0, payloadLength);
+            buffer.get();
+            long issuedAt = buffer.getLong();
+            if (maxAgeMillis > 0 && Math.abs(nowMillis - issuedAt) > maxAgeMillis) {
+                return null;
+            }
+            String userId = readString(buffer);
+            String username = readString(buffer);
+            int blockLength = Short.toUnsignedInt(buffer.getShort());
+            if (blockLength != buffer.remaining()) {
+                return null;
+            }
+            if (blockLength == 0) {
+                return new LoginUser(userId, username, Set.of(), Set.of());
+            }
+            Authorities authorities = authorities(envelope, buffer.position(), blockLength);
+            return new LoginUser(userId, username, authorities.roles(), authorities.permissions());
+        } catch (RuntimeException | DataFormatException e) {
+            return null;
+        }
+    }
+
+    private Authorities authorities(byte[] envelope, int offset, int length) throws DataFormatException {
+        String key = new String(envelope, offset, length, StandardCharsets.ISO_8859_1);
+        Authorities authorities = interned.get(key);
+        if (authorities != null) {
+            return authorities;
+        }
+        ByteBuffer block = ByteBuffer.wrap(envelope, offset + 1, length - 1);
+        if (envelope[offset] == BLOCK_DEFLATED) {
+            block = ByteBuffer.wrap(inflate(envelope, offset + 1, length - 1));
+        }
+        authorities = new Authorities(readStrings(block), readStrings(block));
+        if (interned.size() >= MAX_INTERNED) {
+            // 角色组合数量有限，超出说明权限频繁变更，整体重建即可
+            interned.clear();
+        }
+        interned.put(key, authorities);
+        return authorities;
+    }
+
+    private byte[] sign(byte[] envelope, int length) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 is not cloneable", e);
+        }
+        mac.update(envelope, 0, length);
+        return Arrays.copyOf(mac.doFinal(), MAC_LENGTH);
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length * 4);
+            byte[] buffer = new byte[1024];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("truncated authorities block");
+                }
+                out.write(buffer, 0, n);
+                if (out.size() > MAX_INFLATED_LENGTH) {
+                    throw new DataFormatException("authorities block too large");
+                }
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeStrings(ByteArrayOutputStream out, Collection<String> values) {
+        int size = values == null ? 0 : values.size();
+        out.write(size >>> 8);
+        out.write(size);
+        if (values != null) {
+            for (String value : values) {
+                byte[] bytes = utf8(value);
+                out.write(bytes.length >>> 8);
+                out.write(bytes.length);
+                out.writeBytes(bytes);
+            }
+        }
+    }
+
+    private static Set<String> readStrings(ByteBuffer buffer) {
+        int size = Short.toUnsignedInt(buffer.getShort());
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String value = readString(buffer);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return Set.copyOf(values);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("user context value too long");
+        }
+        return bytes;
+    }
+
+    private static byte[] prepend(byte flag, byte[] data) {
+        byte[] block = new byte[data.length + 1];
+        block[0] = flag;
+        System.arraycopy(data, 0, block, 1, data.length);
+        return block;
+    }
+
+    private record Authorities(Set<String> roles, Set<String> permissions) {
+    }
+}
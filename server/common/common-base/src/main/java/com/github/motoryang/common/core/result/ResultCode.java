@@ -19,6 +19,7 @@ public enum ResultCode {
     FORBIDDEN(403, "无权限访问"),
     NOT_FOUND(404, "资源不存在"),
     METHOD_NOT_ALLOWED(405, "请求方法不支持"),
+    TOO_MANY_REQUESTS(429, "请求过于频繁，请稍后重试"),
 
     // 服务端错误 5xx
     INTERNAL_ERROR(500, "服务器内部错误"),
@@ -1,5 +1,7 @@
 package com.github.motoryang.common.message.interceptor;
 
+import com.github.motoryang.common.core.context.LoginUser;
+import com.github.motoryang.common.core.context.UserContextHolder;
 import com.github.motoryang.common.message.constants.WsConstants;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
@@ -9,8 +11,6 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
 
 /**
  * WebSocket 握手拦截器
@@ -20,19 +20,14 @@ public class WsHandshakeInterceptor implements HandshakeInterceptor {
 
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response, WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
-        // 从网关 Header 中获取用户信息
-        var headers = request.getHeaders();
-        String userId = headers.getFirst(WsConstants.USER_ID_HEADER);
-        String username = headers.getFirst(WsConstants.USERNAME_HEADER);
-        Set<String> roles = Optional.ofNullable(headers.getFirst(WsConstants.USER_ROLES_HEADER))
-                .map(str -> Set.of(str.split(",")))
-                .orElseGet(Set::of);
-
-        if (userId != null) {
+        // 握手请求与 UserContextFilter 在同一线程，直接取网关签名的用户上下文
+        LoginUser loginUser = UserContextHolder.getContextOrNull();
+
+        if (loginUser != null && loginUser.userId() != null) {
             // 存入 attributes，供下一步 HandshakeHandler 使用
-            attributes.put(WsConstants.WS_HEADER_USER_ID, userId);
-            attributes.put(WsConstants.WS_HEADER_USERNAME, username);
-            attributes.put(WsConstants.WS_HEADER_USER_ROLES, roles);
+            attributes.put(WsConstants.WS_HEADER_USER_ID, loginUser.userId());
+            attributes.put(WsConstants.WS_HEADER_USERNAME, loginUser.username());
+            attributes.put(WsConstants.WS_HEADER_USER_ROLES, loginUser.roles());
             return true;
         }
 
@@ -0,0 +1,95 @@
+package com.github.motoryang.common.security.utils;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prebuilt signing key and verifier for one active secret plus any retired secrets
+ * <p>
+ * Each secret is identified by a key id (kid) derived from its SHA-256 fingerprint, so no extra
+ * configuration is needed. Tokens are signed with the active key and carry its kid in the header;
+ * the verifier selects the key by kid, which lets tokens signed before a rollover keep verifying
+ * while their secret is still listed as retired. Tokens without a kid are verified with the active key.
+ * <p>
+ * Instances are immutable and thread-safe; obtain them through {@link JwtUtils#keyRing}, which caches them.
+ */
+public final class JwtKeyRing {
+
+    private final String activeKeyId;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> verificationKeys;
+    private final JwtParser parser;
+
+    JwtKeyRing(String activeSecret, Collection<String> retiredSecrets) {
+        this.activeKeyId = keyId(activeSecret);
+        this.activeKey = Keys.hmacShaKeyFor(activeSecret.getBytes(StandardCharsets.UTF_8));
+        Map<String, SecretKey> keys = new HashMap<>();
+        if (retiredSecrets != null) {
+            for (String secret : retiredSecrets) {
+                if (secret != null && !secret.isBlank()) {
+                    keys.put(keyId(secret), Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+        }
+        keys.put(activeKeyId, activeKey);
+        this.verificationKeys = Map.copyOf(keys);
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String kid = header.getKeyId();
+                        if (kid == null) {
+                            return activeKey;
+                        }
+                        SecretKey key = verificationKeys.get(kid);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Key id of the active signing key
+     */
+    public String activeKeyId() {
+        return activeKeyId;
+    }
+
+    SecretKey activeKey() {
+        return activeKey;
+    }
+
+    JwtParser parser() {
+        return parser;
+    }
+
+    /**
+     * Key id for a secret: first 8 bytes of its SHA-256, Base64URL encoded
+     */
+    static String keyId(String secret) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.motoryang.common.security.utils;
+
+import java.util.List;
+
+/**
+ * Immutable view of a verified token, produced by {@link JwtUtils#parse}
+ *
+ * @param userId       user ID
+ * @param username     username
+ * @param tokenType    token type (access / refresh)
+ * @param roles        role codes, empty for refresh tokens
+ * @param sessionEpoch session epoch, {@link #NO_EPOCH} when the token does not carry one
+ * @param issuedAt     issue time (epoch millis)
+ * @param expiresAt    expiration time (epoch millis), {@link Long#MAX_VALUE} when absent
+ * @param keyId        kid of the key that signed the token, null for tokens signed without one
+ */
+public record JwtToken(
+        String userId,
+        String username,
+        String tokenType,
+        List<String> roles,
+        long sessionEpoch,
+        long issuedAt,
+        long expiresAt,
+        String keyId
+) {
+
+    public static final long NO_EPOCH = -1L;
+
+    public boolean isAccessToken() {
+        return JwtUtils.TOKEN_TYPE_ACCESS.equals(tokenType);
+    }
+
+    public boolean isRefreshToken() {
+        return JwtUtils.TOKEN_TYPE_REFRESH.equals(tokenType);
+    }
+
+    public boolean hasSessionEpoch() {
+        return sessionEpoch != NO_EPOCH;
+    }
+
+    /**
+     * Remaining lifetime in milliseconds (negative once expired)
+     */
+    public long remainingMillis(long nowMillis) {
+        return expiresAt - nowMillis;
+    }
+}
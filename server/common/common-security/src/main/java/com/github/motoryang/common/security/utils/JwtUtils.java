@@ -2,18 +2,24 @@ package com.github.motoryang.common.security.utils;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JWT utility class for token generation and validation
+ * <p>
+ * Signing keys and parsers are built once per secret (see {@link JwtKeyRing}) and cached;
+ * use {@link #parse} to verify a token once and read all of its claims.
  */
 public final class JwtUtils {
 
@@ -24,9 +30,14 @@ public final class JwtUtils {
     public static final String CLAIM_USERNAME = "username";
     public static final String CLAIM_TOKEN_TYPE = "tokenType";
     public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_SESSION_EPOCH = "sessionEpoch";
     public static final String TOKEN_TYPE_ACCESS = "access";
     public static final String TOKEN_TYPE_REFRESH = "refresh";
 
+    // Secrets rarely change at runtime, a handful of entries at most
+    private static final int MAX_KEY_RINGS = 16;
+    private static final Map<String, JwtKeyRing> KEY_RINGS = new ConcurrentHashMap<>();
+
     /**
      * Generate SecretKey from string
      */
@@ -34,6 +45,31 @@ public final class JwtUtils {
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Cached key ring for a single secret
+     */
+    public static JwtKeyRing keyRing(String secret) {
+        return keyRing(secret, List.of());
+    }
+
+    /**
+     * Cached key ring signing with the active secret and still verifying tokens signed with retired secrets
+     */
+    public static JwtKeyRing keyRing(String activeSecret, Collection<String> retiredSecrets) {
+        String cacheKey = retiredSecrets == null || retiredSecrets.isEmpty()
+                ? activeSecret
+                : activeSecret + '\n' + String.join("\n", retiredSecrets);
+        JwtKeyRing keyRing = KEY_RINGS.get(cacheKey);
+        if (keyRing != null) {
+            return keyRing;
+        }
+        if (KEY_RINGS.size() >= MAX_KEY_RINGS) {
+            // Secrets were refreshed many times; drop stale rings instead of growing without bound
+            KEY_RINGS.clear();
+        }
+        return KEY_RINGS.computeIfAbsent(cacheKey, key -> new JwtKeyRing(activeSecret, retiredSecrets));
+    }
+
     /**
      * Create access token
      */
@@ -47,74 +83,165 @@ public final class JwtUtils {
         return createToken(claims, secret, expireMillis);
     }
 
+    /**
+     * Create access token bound to a session epoch
+     */
+    public static String createAccessToken(String userId, String username, List<String> roles, long sessionEpoch,
+                                            String secret, long expireMillis) {
+        return createAccessToken(userId, username, roles, sessionEpoch, keyRing(secret), expireMillis);
+    }
+
+    /**
+     * Create access token bound to a session epoch, signed with the key ring's active key
+     */
+    public static String createAccessToken(String userId, String username, List<String> roles, long sessionEpoch,
+                                            JwtKeyRing keyRing, long expireMillis) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, userId);
+        claims.put(CLAIM_USERNAME, username);
+        claims.put(CLAIM_TOKEN_TYPE, TOKEN_TYPE_ACCESS);
+        claims.put(CLAIM_ROLES, roles);
+        claims.put(CLAIM_SESSION_EPOCH, sessionEpoch);
+        return createToken(claims, keyRing, expireMillis);
+    }
+
     /**
      * Create refresh token
      */
     public static String createRefreshToken(String userId, String username, String secret, long expireMillis) {
+        return createRefreshToken(userId, username, keyRing(secret), expireMillis);
+    }
+
+    /**
+     * Create refresh token, signed with the key ring's active key
+     */
+    public static String createRefreshToken(String userId, String username, JwtKeyRing keyRing, long expireMillis) {
         return createToken(Map.of(
                 CLAIM_USER_ID, userId,
                 CLAIM_USERNAME, username,
                 CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH
-        ), secret, expireMillis);
+        ), keyRing, expireMillis);
+    }
+
+    /**
+     * Create refresh token bound to a session epoch, signed with the key ring's active key
+     */
+    public static String createRefreshToken(String userId, String username, long sessionEpoch,
+                                             JwtKeyRing keyRing, long expireMillis) {
+        return createToken(Map.of(
+                CLAIM_USER_ID, userId,
+                CLAIM_USERNAME, username,
+                CLAIM_TOKEN_TYPE, TOKEN_TYPE_REFRESH,
+                CLAIM_SESSION_EPOCH, sessionEpoch
+        ), keyRing, expireMillis);
     }
 
     /**
      * Create token with claims
      */
     public static String createToken(Map<String, Object> claims, String secret, long expireMillis) {
+        return createToken(claims, keyRing(secret), expireMillis);
+    }
+
+    /**
+     * Create token with claims, signed with the key ring's active key and tagged with its kid
+     */
+    public static String createToken(Map<String, Object> claims, JwtKeyRing keyRing, long expireMillis) {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + expireMillis);
 
         return Jwts.builder()
+                .header().keyId(keyRing.activeKeyId()).and()
                 .claims(claims)
                 .issuedAt(now)
                 .expiration(expiration)
-                .signWith(getSecretKey(secret))
+                .signWith(keyRing.activeKey())
                 .compact();
     }
 
+    /**
+     * Verify the token signature once and return all claims as an immutable view
+     *
+     * @throws ExpiredJwtException          token expired
+     * @throws io.jsonwebtoken.JwtException token invalid (signature, format or unknown kid)
+     */
+    public static JwtToken parse(String token, String secret) {
+        return parse(token, keyRing(secret));
+    }
+
+    /**
+     * Verify the token signature once and return all claims as an immutable view
+     *
+     * @throws ExpiredJwtException          token expired
+     * @throws io.jsonwebtoken.JwtException token invalid (signature, format or unknown kid)
+     */
+    @SuppressWarnings("unchecked")
+    public static JwtToken parse(String token, JwtKeyRing keyRing) {
+        Jws<Claims> jws = keyRing.parser().parseSignedClaims(token);
+        Claims claims = jws.getPayload();
+        List<String> roles = claims.get(CLAIM_ROLES, List.class);
+        Number sessionEpoch = claims.get(CLAIM_SESSION_EPOCH, Number.class);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new JwtToken(
+                claims.get(CLAIM_USER_ID, String.class),
+                claims.get(CLAIM_USERNAME, String.class),
+                claims.get(CLAIM_TOKEN_TYPE, String.class),
+                roles == null ? List.of() : List.copyOf(roles),
+                sessionEpoch == null ? JwtToken.NO_EPOCH : sessionEpoch.longValue(),
+                issuedAt == null ? 0L : issuedAt.getTime(),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime(),
+                jws.getHeader().getKeyId()
+        );
+    }
+
     /**
      * Parse token and get claims
      */
     public static Claims parseToken(String token, String secret) {
-        return Jwts.parser()
-                .verifyWith(getSecretKey(secret))
-                .build()
+        return keyRing(secret).parser()
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
     /**
      * Get user ID from token
+     *
+     * @deprecated verifies the signature on every call; use {@link #parse} and read all claims from one result
      */
+    @Deprecated
     public static String getUserId(String token, String secret) {
-        Claims claims = parseToken(token, secret);
-        return claims.get(CLAIM_USER_ID, String.class);
+        return parse(token, secret).userId();
     }
 
     /**
      * Get username from token
+     *
+     * @deprecated verifies the signature on every call; use {@link #parse} and read all claims from one result
      */
+    @Deprecated
     public static String getUsername(String token, String secret) {
-        Claims claims = parseToken(token, secret);
-        return claims.get(CLAIM_USERNAME, String.class);
+        return parse(token, secret).username();
     }
 
     /**
      * Get roles from token
+     *
+     * @deprecated verifies the signature on every call; use {@link #parse} and read all claims from one result
      */
-    @SuppressWarnings("unchecked")
+    @Deprecated
     public static List<String> getRoles(String token, String secret) {
-        Claims claims = parseToken(token, secret);
-        return claims.get(CLAIM_ROLES, List.class);
+        return parse(token, secret).roles();
     }
 
     /**
      * Get token type from token
+     *
+     * @deprecated verifies the signature on every call; use {@link #parse} and read all claims from one result
      */
+    @Deprecated
     public static String getTokenType(String token, String secret) {
-        Claims claims = parseToken(token, secret);
-        return claims.get(CLAIM_TOKEN_TYPE, String.class);
+        return parse(token, secret).tokenType();
     }
 
     /**
@@ -134,8 +261,7 @@ public final class JwtUtils {
      */
     public static boolean isTokenExpired(String token, String secret) {
         try {
-            Claims claims = parseToken(token, secret);
-            return claims.getExpiration().before(new Date());
+            return parse(token, secret).expiresAt() < System.currentTimeMillis();
         } catch (ExpiredJwtException e) {
             return true;
         } catch (Exception e) {
@@ -147,8 +273,6 @@ public final class JwtUtils {
      * Get token remaining time in milliseconds
      */
     public static long getTokenRemainingTime(String token, String secret) {
-        Claims claims = parseToken(token, secret);
-        Date expiration = claims.getExpiration();
-        return expiration.getTime() - System.currentTimeMillis();
+        return parse(token, secret).remainingMillis(System.currentTimeMillis());
     }
 }
@@ -1,6 +1,7 @@
 package com.github.motoryang.common.web.feign;
 
 import com.github.motoryang.common.core.constants.Constants;
+import com.github.motoryang.common.core.context.UserContextCodec;
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,7 +34,13 @@ public class FeignInternalRequestInterceptor implements RequestInterceptor {
             }
             template.header(Constants.INTERNAL_TOKEN_HEADER, secret);
 
-            // 3. Pass through user authentication token
+            // 3. Pass through the signed user context so the callee sees the same LoginUser
+            String userContext = request.getHeader(UserContextCodec.HEADER);
+            if (userContext != null) {
+                template.header(UserContextCodec.HEADER, userContext);
+            }
+
+            // 4. Pass through user authentication token
             String authHeader = request.getHeader(Constants.AUTHORIZATION_HEADER);
             if (authHeader != null) {
                 template.header(Constants.AUTHORIZATION_HEADER, authHeader);
@@ -1,6 +1,7 @@
 package com.github.motoryang.common.web.filter;
 
 import com.github.motoryang.common.core.constants.Constants;
+import com.github.motoryang.common.core.context.LoginUser;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,40 +13,46 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Collections;
 
 /**
- * Internal request filter: only allows requests with gateway-specific headers
+ * Internal request filter: only allows requests carrying a valid gateway user context envelope
+ * (verified by UserContextFilter) or the internal secret (service-to-service calls)
  */
 public class InternalSecretFilter extends OncePerRequestFilter {
 
-    private final String internalSecret;
+    private final byte[] internalSecret;
 
     public InternalSecretFilter(String internalSecret) {
-        this.internalSecret = internalSecret;
+        this.internalSecret = StringUtils.hasText(internalSecret)
+                ? internalSecret.getBytes(StandardCharsets.UTF_8)
+                : null;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        String headerSecret = request.getHeader(Constants.INTERNAL_TOKEN_HEADER);
-
-        // Check if request is from gateway
-        if (StringUtils.hasText(internalSecret) && internalSecret.equals(headerSecret)) {
-
-            // Try to parse user info from gateway headers
-            String userId = request.getHeader(Constants.USER_ID_HEADER);
-            String username = request.getHeader(Constants.USERNAME_HEADER);
-            if (StringUtils.hasText(userId) && StringUtils.hasText(username)) {
+        // Envelope already verified and decoded by UserContextFilter
+        if (request.getAttribute(UserContextFilter.VERIFIED_USER_ATTRIBUTE) instanceof LoginUser loginUser) {
+            if (loginUser.userId() != null) {
                 // Build authentication object to pass internal service authorization
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userId, username, Collections.emptyList()
+                        loginUser.userId(), loginUser.username(), Collections.emptyList()
                 );
                 // Store authentication info in context
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
+            filterChain.doFilter(request, response);
+            return;
+        }
 
+        // Otherwise the request must carry the internal secret (constant-time comparison)
+        String headerSecret = request.getHeader(Constants.INTERNAL_TOKEN_HEADER);
+        if (internalSecret != null && headerSecret != null
+                && MessageDigest.isEqual(internalSecret, headerSecret.getBytes(StandardCharsets.UTF_8))) {
             filterChain.doFilter(request, response);
         } else {
             response.setStatus(HttpStatus.FORBIDDEN.value());
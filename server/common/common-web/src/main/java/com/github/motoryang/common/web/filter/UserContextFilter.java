@@ -1,12 +1,14 @@
 package com.github.motoryang.common.web.filter;
 
-import com.github.motoryang.common.core.constants.Constants;
 import com.github.motoryang.common.core.context.LoginUser;
+import com.github.motoryang.common.core.context.UserContextCodec;
 import com.github.motoryang.common.core.context.UserContextHolder;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -14,38 +16,52 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.time.Duration;
 
 /**
  * User context filter
  * <p>
- * Parses user info from Gateway-forwarded request headers and stores in UserContextHolder
+ * Verifies the signed X-User-Context envelope written by the Gateway (or forwarded by Feign),
+ * decodes it once into an immutable LoginUser and stores it in UserContextHolder.
+ * The verified user is also exposed as a request attribute so InternalSecretFilter does not decode it again.
  */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 10)
 public class UserContextFilter extends OncePerRequestFilter {
 
+    /**
+     * Request attribute holding the LoginUser decoded from a valid envelope
+     */
+    public static final String VERIFIED_USER_ATTRIBUTE = UserContextFilter.class.getName() + ".verifiedUser";
+
+    @Value("${auth.internal.secret}")
+    private String internalSecret;
+
+    @Value("${auth.internal.context-max-age:5m}")
+    private Duration contextMaxAge;
+
+    private UserContextCodec codec;
+
+    @PostConstruct
+    public void init() {
+        this.codec = new UserContextCodec(internalSecret, contextMaxAge.toMillis());
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
-            // Get user info from request headers
-            String userId = request.getHeader(Constants.USER_ID_HEADER);
-            String username = request.getHeader(Constants.USERNAME_HEADER);
-            String rolesStr = request.getHeader(Constants.USER_ROLES_HEADER);
-            String permsStr = request.getHeader(Constants.USER_PERMS_HEADER);
-
-            // Parse roles and permissions
-            Set<String> roles = parseToSet(rolesStr);
-            Set<String> permissions = parseToSet(permsStr);
-
-            // Build LoginUser and store in context
-            LoginUser loginUser = new LoginUser(userId, username, roles, permissions);
-            UserContextHolder.setContext(loginUser);
+            String envelope = request.getHeader(UserContextCodec.HEADER);
+            LoginUser loginUser = StringUtils.hasText(envelope)
+                    ? codec.decode(envelope, System.currentTimeMillis())
+                    : null;
+            if (loginUser != null) {
+                request.setAttribute(VERIFIED_USER_ATTRIBUTE, loginUser);
+                UserContextHolder.setContext(loginUser);
+            } else {
+                UserContextHolder.setContext(LoginUser.anonymous());
+            }
 
             filterChain.doFilter(request, response);
         } finally {
@@ -53,14 +69,4 @@ public class UserContextFilter extends OncePerRequestFilter {
             UserContextHolder.clearContext();
         }
     }
-
-    /**
-     * Parse comma-separated string to Set
-     */
-    private Set<String> parseToSet(String str) {
-        if (!StringUtils.hasText(str)) {
-            return Collections.emptySet();
-        }
-        return new HashSet<>(Arrays.asList(str.split(",")));
-    }
 }
@@ -0,0 +1,43 @@
+package com.github.motoryang.gateway.auth;
+
+import com.github.motoryang.common.security.utils.JwtUtils;
+
+import java.util.List;
+
+/**
+ * 网关解析后的令牌主体
+ * <p>
+ * 每个请求只解析一次，存放在 exchange 属性中供后续过滤器使用
+ *
+ * @param userId       用户ID
+ * @param username     用户名
+ * @param roles        角色编码列表
+ * @param rolesHeader  逗号拼接的角色编码（角色位图解码的 key）
+ * @param tokenType    令牌类型（access / refresh）
+ * @param expiresAt    过期时间（毫秒时间戳）
+ * @param sessionEpoch 会话纪元，旧版令牌不携带时为 {@link #NO_EPOCH}
+ */
+public record GatewayPrincipal(
+        String userId,
+        String username,
+        List<String> roles,
+        String rolesHeader,
+        String tokenType,
+        long expiresAt,
+        long sessionEpoch
+) {
+
+    public static final long NO_EPOCH = -1L;
+
+    public boolean isAccessToken() {
+        return JwtUtils.TOKEN_TYPE_ACCESS.equals(tokenType);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+
+    public boolean hasSessionEpoch() {
+        return sessionEpoch != NO_EPOCH;
+    }
+}
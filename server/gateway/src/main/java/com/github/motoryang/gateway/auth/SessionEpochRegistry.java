@@ -0,0 +1,144 @@
+package com.github.motoryang.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.motoryang.gateway.messaging.event.SessionRevokeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话纪元注册表（revocation-mode=epoch 时启用）
+ * <p>
+ * 访问令牌携带签发时的会话纪元，auth 服务在登录、刷新、登出时广播用户的最小有效纪元，
+ * 网关在内存中维护 userId -> minValidEpoch，纪元低于最小值的令牌直接拒绝、等于最小值的令牌直接放行，
+ * 高于最小值的纪元（单设备登出后新登录的会话）仍回源 Redis。
+ * 以下情况视为未知用户，由调用方回源 Redis 校验并回填：
+ * <ul>
+ *     <li>网关刚启动，尚未开始接收事件</li>
+ *     <li>条目超过 epoch-ttl 未被刷新（同时限定了事件丢失时的最大陈旧时间）</li>
+ *     <li>事件序号出现缺口，整表清空</li>
+ *     <li>用户有多个设备会话在线：最小纪元只是下界，其上被替换或淘汰的纪元无法表达，移出注册表</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class SessionEpochRegistry {
+
+    public static final String MODE_EPOCH = "epoch";
+
+    @Value("${gateway.auth.revocation-mode:redis}")
+    private String revocationMode;
+
+    @Value("${gateway.auth.epoch-ttl:5m}")
+    private Duration epochTtl;
+
+    @Value("${gateway.auth.epoch-max-size:100000}")
+    private long epochMaxSize;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private boolean enabled;
+
+    private Cache<String, Long> minValidEpochs;
+
+    private Counter gapCounter;
+
+    // 已接收的最大事件序号，0 表示尚未收到任何事件
+    private final AtomicLong lastSeq = new AtomicLong();
+
+    // 每次整表清空递增，回源 Redis 期间发生清空时丢弃回填结果
+    private final AtomicLong generation = new AtomicLong();
+
+    // 应用就绪（消息绑定已启动）后才开始回填，避免遗漏绑定建立之前的事件
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        this.enabled = MODE_EPOCH.equalsIgnoreCase(revocationMode);
+        this.minValidEpochs = Caffeine.newBuilder()
+                .maximumSize(epochMaxSize)
+                .expireAfterWrite(epochTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, minValidEpochs, "gateway.session.epoch");
+        this.gapCounter = meterRegistry.counter("gateway.session.epoch.gaps");
+        log.info("Gateway token revocation mode: {}", enabled ? MODE_EPOCH : "redis");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        this.ready = true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 用户当前的最小有效纪元，未知时返回 null（需回源 Redis）
+     */
+    public Long minValidEpoch(String userId) {
+        if (!ready) {
+            return null;
+        }
+        return minValidEpochs.getIfPresent(userId);
+    }
+
+    /**
+     * 回源前读取的清空代数，回填时传回（整表清空或移出多设备用户时递增）
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * 根据 Redis 校验结果回填（纪元只增不减）
+     */
+    public void seed(String userId, long minValidEpoch, long expectedGeneration) {
+        if (!enabled || !ready) {
+            return;
+        }
+        minValidEpochs.asMap().merge(userId, minValidEpoch, Math::max);
+        // 回源期间发生过整表清空：Redis 结果可能早于丢失的事件，不可信
+        if (generation.get() != expectedGeneration) {
+            minValidEpochs.invalidate(userId);
+        }
+    }
+
+    /**
+     * 应用 auth 服务广播的吊销事件
+     */
+    public void apply(SessionRevokeEvent event) {
+        if (!enabled) {
+            return;
+        }
+        long previous = lastSeq.getAndAccumulate(event.seq(), Math::max);
+        if (previous > 0 && event.seq() > previous + 1) {
+            // 序号缺口：中间的事件已丢失，无法判断哪些用户受影响，全部回退到 Redis
+            generation.incrementAndGet();
+            minValidEpochs.invalidateAll();
+            gapCounter.increment();
+            log.warn("Session revoke event gap detected, expected seq={}, got seq={}, epoch table cleared",
+                    previous + 1, event.seq());
+        }
+        if (event.devices() > 1) {
+            // 多设备：移出注册表并递增代数，丢弃进行中的回源结果（其读取可能早于本事件）
+            generation.incrementAndGet();
+            minValidEpochs.invalidate(event.userId());
+            return;
+        }
+        minValidEpochs.asMap().merge(event.userId(), event.minValidEpoch(), Math::max);
+    }
+}
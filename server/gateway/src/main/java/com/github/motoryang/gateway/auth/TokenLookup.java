@@ -0,0 +1,157 @@
+package com.github.motoryang.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.motoryang.gateway.constants.Constants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis 会话令牌查询（uni:auth:session:{userId} 哈希）
+ * <p>
+ * 一次 HMGET 同时取回令牌纪元的会话标记 a:{epoch}、最小有效纪元 min 与在线设备会话数 devices。
+ * 同一会话的并发查询合并为一次 Redis 调用（页面加载时同一令牌的并行请求共享结果）；
+ * 可选地将仍有效的会话保留一个很短的 TTL，
+ * 刷新后的新令牌属于新纪元，总会回源 Redis，保留时间内的登出最多延迟 TTL 生效。
+ * <p>
+ * 查询次数通过 gateway.token.lookup 指标发布，result 标签区分 redis / coalesced / cached
+ */
+@Component
+public class TokenLookup {
+
+    /**
+     * 会话查询结果
+     *
+     * @param live          该纪元的会话是否仍有效，已被替换、淘汰或登出时为 false
+     * @param minValidEpoch 仍有效的最小纪元，用户没有任何会话时为 null
+     * @param devices       在线设备会话数
+     */
+    public record SessionToken(boolean live, Long minValidEpoch, int devices) {
+
+        static final SessionToken NONE = new SessionToken(false, null, 0);
+
+        /**
+         * 用户是否还有会话（哈希不存在说明已登出或全部过期）
+         */
+        public boolean exists() {
+            return minValidEpoch != null;
+        }
+    }
+
+    @Value("${gateway.token-lookup.ttl:0s}")
+    private Duration ttl;
+
+    @Value("${gateway.token-lookup.max-size:10000}")
+    private long maxSize;
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    // 进行中的查询：userId:epoch -> 共享结果
+    private final Map<String, Mono<SessionToken>> inFlight = new ConcurrentHashMap<>();
+
+    // 短期保留的查询结果，ttl 为 0 时不启用
+    private Cache<String, SessionToken> recentSessions;
+
+    private Counter redisCounter;
+    private Counter coalescedCounter;
+    private Counter cachedCounter;
+
+    @PostConstruct
+    public void init() {
+        if (!ttl.isZero() && !ttl.isNegative()) {
+            this.recentSessions = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(ttl)
+                    .build();
+        }
+        this.redisCounter = meterRegistry.counter("gateway.token.lookup", "result", "redis");
+        this.coalescedCounter = meterRegistry.counter("gateway.token.lookup", "result", "coalesced");
+        this.cachedCounter = meterRegistry.counter("gateway.token.lookup", "result", "cached");
+    }
+
+    /**
+     * 查询用户某个会话纪元是否仍有效
+     *
+     * @param userId 用户ID
+     * @param epoch  令牌携带的会话纪元
+     */
+    public Mono<SessionToken> lookup(String userId, long epoch) {
+        String key = userId + ":" + epoch;
+        if (recentSessions != null) {
+            SessionToken recent = recentSessions.getIfPresent(key);
+            if (recent != null) {
+                cachedCounter.increment();
+                return Mono.just(recent);
+            }
+        }
+        Mono<SessionToken> pending = inFlight.get(key);
+        if (pending != null) {
+            coalescedCounter.increment();
+            return pending;
+        }
+        Sinks.One<SessionToken> sink = Sinks.one();
+        Mono<SessionToken> shared = sink.asMono();
+        pending = inFlight.putIfAbsent(key, shared);
+        if (pending != null) {
+            coalescedCounter.increment();
+            return pending;
+        }
+        redisCounter.increment();
+        // 先移出进行中表再发布结果，之后到达的请求会重新查询而不是拿到已完成的旧结果
+        reactiveStringRedisTemplate.<String, String>opsForHash()
+                .multiGet(Constants.REDIS_AUTH_SESSION_KEY + userId,
+                        List.of(Constants.SESSION_ACCESS_FIELD + epoch, Constants.SESSION_MIN_EPOCH_FIELD,
+                                Constants.SESSION_DEVICES_FIELD))
+                .map(TokenLookup::toSessionToken)
+                .defaultIfEmpty(SessionToken.NONE)
+                .subscribe(
+                        value -> {
+                            if (recentSessions != null && value.live()) {
+                                recentSessions.put(key, value);
+                            }
+                            inFlight.remove(key, shared);
+                            sink.tryEmitValue(value);
+                        },
+                        error -> {
+                            inFlight.remove(key, shared);
+                            sink.tryEmitError(error);
+                        });
+        return shared;
+    }
+
+    /**
+     * 丢弃该用户短期保留的结果（收到会话吊销事件时调用）
+     */
+    public void invalidate(String userId) {
+        if (recentSessions != null) {
+            String prefix = userId + ":";
+            recentSessions.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    private static SessionToken toSessionToken(List<String> values) {
+        String minEpoch = values.get(1);
+        if (minEpoch == null) {
+            return SessionToken.NONE;
+        }
+        String devices = values.get(2);
+        return new SessionToken(values.get(0) != null, Long.parseLong(minEpoch),
+                devices == null ? 1 : Integer.parseInt(devices));
+    }
+}
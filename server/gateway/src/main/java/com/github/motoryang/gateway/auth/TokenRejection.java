@@ -0,0 +1,20 @@
+package com.github.motoryang.gateway.auth;
+
+/**
+ * 令牌被拒绝的原因（签名/格式无效或已过期的结论不会再改变，可以缓存）
+ */
+public enum TokenRejection {
+
+    EXPIRED("令牌已过期"),
+    INVALID("无效的认证令牌");
+
+    private final String message;
+
+    TokenRejection(String message) {
+        this.message = message;
+    }
+
+    public String message() {
+        return message;
+    }
+}
@@ -0,0 +1,182 @@
+package com.github.motoryang.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.motoryang.common.security.utils.JwtKeyRing;
+import com.github.motoryang.common.security.utils.JwtToken;
+import com.github.motoryang.common.security.utils.JwtUtils;
+import com.github.motoryang.gateway.constants.Constants;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关令牌校验器
+ * <p>
+ * 持有预构建的密钥环（JwtKeyRing，按 kid 选择密钥，轮换期间旧密钥签发的令牌仍可校验），每个请求只校验一次签名，结果存入 exchange 属性供后续过滤器读取；
+ * 已校验的令牌放入有界缓存并在令牌过期时淘汰，热点客户端无需重复 HMAC 与 JSON 解码；
+ * 校验失败（过期、签名或格式无效）的令牌按摘要放入有界的否定缓存，
+ * 客户端反复携带同一个失效令牌时只需一次摘要与一次哈希查找即可拒绝
+ */
+@Slf4j
+@Component
+public class TokenVerifier {
+
+    @Value("${auth.jwt.secret}")
+    private String jwtSecret;
+
+    // 轮换前的旧密钥，其签发的令牌在过期前仍可校验
+    @Value("${auth.jwt.retired-secrets:}")
+    private List<String> retiredSecrets;
+
+    @Value("${gateway.token-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${gateway.token-cache.negative-ttl:10m}")
+    private Duration negativeTtl;
+
+    @Value("${gateway.token-cache.negative-max-size:10000}")
+    private long negativeMaxSize;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private JwtKeyRing keyRing;
+
+    /**
+     * 已校验令牌缓存：token -> principal，按令牌过期时间淘汰
+     * <p>
+     * 直接以令牌本身为 key（哈希表的散列即摘要），避免每次请求额外计算 SHA-256
+     */
+    private Cache<String, GatewayPrincipal> verifiedTokenCache;
+
+    /**
+     * 否定缓存：SHA-256(token) -> 拒绝原因
+     * <p>
+     * 无效令牌长度不受控制，以定长摘要为 key 限制内存占用；只在已校验缓存未命中时才计算摘要
+     */
+    private Cache<String, TokenRejection> rejectedTokenCache;
+
+    @PostConstruct
+    public void init() {
+        this.keyRing = JwtUtils.keyRing(jwtSecret, retiredSecrets);
+        this.verifiedTokenCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, GatewayPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, GatewayPrincipal value, long currentTime) {
+                        long remainingMillis = Math.max(0, value.expiresAt() - System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, GatewayPrincipal value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, GatewayPrincipal value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokenCache, "gateway.token.verified");
+        this.rejectedTokenCache = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rejectedTokenCache, "gateway.token.rejected");
+    }
+
+    /**
+     * 查询令牌是否已知被拒绝，未知时返回 null（之后仍需调用 verify 校验）
+     */
+    public TokenRejection knownRejection(String token) {
+        if (verifiedTokenCache.getIfPresent(token) != null) {
+            return null;
+        }
+        return rejectedTokenCache.getIfPresent(digest(token));
+    }
+
+    /**
+     * 校验当前请求的令牌，同一个 exchange 只校验一次
+     *
+     * @throws ExpiredJwtException             令牌已过期
+     * @throws io.jsonwebtoken.JwtException 令牌无效
+     */
+    public GatewayPrincipal verify(ServerWebExchange exchange, String token) {
+        GatewayPrincipal principal = exchange.getAttribute(Constants.GATEWAY_PRINCIPAL);
+        if (principal != null) {
+            return principal;
+        }
+        principal = verify(token);
+        exchange.getAttributes().put(Constants.GATEWAY_PRINCIPAL, principal);
+        return principal;
+    }
+
+    /**
+     * 校验令牌，优先命中已校验缓存
+     */
+    public GatewayPrincipal verify(String token) {
+        GatewayPrincipal principal = verifiedTokenCache.getIfPresent(token);
+        if (principal != null) {
+            // 缓存按过期时间淘汰，这里兜底处理淘汰时间粒度内的边界
+            if (!principal.isExpired(System.currentTimeMillis())) {
+                return principal;
+            }
+            verifiedTokenCache.invalidate(token);
+        }
+        try {
+            principal = toPrincipal(JwtUtils.parse(token, keyRing));
+        } catch (ExpiredJwtException e) {
+            rejectedTokenCache.put(digest(token), TokenRejection.EXPIRED);
+            throw e;
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTokenCache.put(digest(token), TokenRejection.INVALID);
+            throw e;
+        }
+        if (!principal.isExpired(System.currentTimeMillis())) {
+            verifiedTokenCache.put(token, principal);
+        }
+        return principal;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static GatewayPrincipal toPrincipal(JwtToken token) {
+        return new GatewayPrincipal(
+                token.userId(),
+                token.username(),
+                token.roles(),
+                String.join(",", token.roles()),
+                token.tokenType(),
+                token.expiresAt(),
+                token.hasSessionEpoch() ? token.sessionEpoch() : GatewayPrincipal.NO_EPOCH
+        );
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.motoryang.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.motoryang.common.core.context.UserContextCodec;
+import com.github.motoryang.gateway.constants.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 下游用户上下文（X-User-Context）构建
+ * <p>
+ * 权限块 = 令牌中的角色 + Redis 会话哈希 uni:auth:session:{userId} 的 perms 字段，按会话缓存：
+ * 权限只在登录 / 刷新时重写，而每次登录 / 刷新都会签发新纪元的令牌，
+ * 因此以 userId + 会话纪元为 key 不会读到旧权限。同一会话的并发请求只查询一次 Redis，
+ * 之后每个请求只需写入用户ID、签发时间并计算一次 HMAC
+ */
+@Component
+public class UserContextEncoder {
+
+    @Value("${auth.internal.secret}")
+    private String internalSecret;
+
+    @Value("${gateway.user-context.ttl:10m}")
+    private Duration ttl;
+
+    @Value("${gateway.user-context.max-size:10000}")
+    private long maxSize;
+
+    @Resource
+    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private UserContextCodec codec;
+
+    // 会话 key -> 编码后的权限块
+    private AsyncCache<String, byte[]> authoritiesCache;
+
+    @PostConstruct
+    public void init() {
+        this.codec = new UserContextCodec(internalSecret, 0);
+        this.authoritiesCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, authoritiesCache.synchronous(), "gateway.user.context");
+    }
+
+    /**
+     * 已认证用户的上下文信封
+     */
+    public Mono<String> encode(GatewayPrincipal principal) {
+        return Mono.fromFuture(authoritiesCache.get(sessionKey(principal),
+                        (key, executor) -> loadAuthorities(principal).toFuture()))
+                .map(authorities -> codec.encode(principal.userId(), principal.username(), authorities,
+                        System.currentTimeMillis()));
+    }
+
+    /**
+     * 匿名请求（白名单、公开静态资源）的上下文信封，仅证明请求来自网关
+     */
+    public String encodeAnonymous() {
+        return codec.encode(null, null, null, System.currentTimeMillis());
+    }
+
+    private Mono<byte[]> loadAuthorities(GatewayPrincipal principal) {
+        return reactiveStringRedisTemplate.<String, String>opsForHash()
+                .get(Constants.REDIS_AUTH_SESSION_KEY + principal.userId(), Constants.SESSION_PERMS_FIELD)
+                .map(permissions -> permissions.isEmpty() ? List.<String>of() : List.of(permissions.split(",")))
+                .defaultIfEmpty(List.of())
+                .map(permissions -> UserContextCodec.encodeAuthorities(principal.roles(), permissions));
+    }
+
+    private static String sessionKey(GatewayPrincipal principal) {
+        // 不携带纪元的旧版令牌已在认证过滤器中拒绝
+        return principal.userId() + ":" + principal.sessionEpoch();
+    }
+}
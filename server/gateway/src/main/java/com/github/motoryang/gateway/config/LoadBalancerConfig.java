@@ -0,0 +1,13 @@
+package com.github.motoryang.gateway.config;
+
+import com.github.motoryang.gateway.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * lb:// 路由负载均衡配置：所有服务默认使用延迟感知的 P2C 负载均衡器
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -14,19 +14,32 @@ public class Constants {
     public static final String TOKEN_PREFIX = "Bearer ";
 
     /**
-     * 自定义请求头
+     * exchange 属性：请求路径分类（PathType）
      */
-    public static final String USER_ID_HEADER = "X-User-Id";
-    public static final String USERNAME_HEADER = "X-Username";
-    public static final String USER_ROLES_HEADER = "X-User-Roles";
-    public static final String USER_PERMS_HEADER = "X-User-Perms";
-    public static final String INTERNAL_TOKEN_HEADER = "X-Internal-Token";
+    public static final String PATH_TYPE = "pathType";
 
-    public static final String SKIP_SECURITY = "skipSecurity";
+    /**
+     * exchange 属性：已校验的令牌主体（GatewayPrincipal）
+     */
+    public static final String GATEWAY_PRINCIPAL = "gatewayPrincipal";
+
+    /**
+     * exchange 属性：各阶段耗时（StageTimings）
+     */
+    public static final String STAGE_TIMINGS = "stageTimings";
 
     /**
      * Redis key prefixes
      */
-    public static final String REDIS_TOKEN_KEY = "uni:token:";
-    public static final String REDIS_USER_PERMS_KEY = "uni:perms:";
+    public static final String REDIS_AUTH_SESSION_KEY = "uni:auth:session:";
+    public static final String REDIS_RATE_LIMIT_KEY = "uni:ratelimit:";
+    public static final String REDIS_HOTSPOT_KEY = "uni:hotspot:";
+
+    /**
+     * 会话哈希字段：a:{epoch} 该纪元的访问令牌仍有效的标记、perms 权限编码、min 最小有效纪元、devices 在线设备会话数
+     */
+    public static final String SESSION_ACCESS_FIELD = "a:";
+    public static final String SESSION_PERMS_FIELD = "perms";
+    public static final String SESSION_MIN_EPOCH_FIELD = "min";
+    public static final String SESSION_DEVICES_FIELD = "devices";
 }
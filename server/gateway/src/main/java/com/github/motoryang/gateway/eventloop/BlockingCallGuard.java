@@ -0,0 +1,30 @@
+package com.github.motoryang.gateway.eventloop;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+
+/**
+ * 事件循环阻塞调用检测（基于 BlockHound）
+ * <p>
+ * Reactor Netty 的事件循环线程实现了 reactor.core.scheduler.NonBlocking，
+ * 在其上调用 Thread.sleep、同步 IO、锁等待等阻塞方法时抛出 {@link BlockingOperationError}，
+ * 使请求直接失败。单独成类，未开启时不加载 BlockHound。
+ * JDK 13+ 需要 JVM 参数 -XX:+AllowRedefinitionToAddDeleteMethods
+ */
+@Slf4j
+final class BlockingCallGuard {
+
+    private BlockingCallGuard() {
+    }
+
+    static void install(Counter blockingCalls) {
+        BlockHound.install(builder -> builder.blockingMethodCallback(method -> {
+            blockingCalls.increment();
+            log.error("Blocking call on event loop thread {}: {}", Thread.currentThread().getName(), method);
+            throw new BlockingOperationError(method);
+        }));
+        log.warn("BlockHound installed, blocking calls on event loop threads will fail");
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.motoryang.gateway.eventloop;
+
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 事件循环卡顿端点：/actuator/eventloop
+ * <p>
+ * stalls 为本节点最近的卡顿记录（含卡顿时的线程栈），按时间倒序
+ */
+@Component
+@Endpoint(id = "eventloop")
+public class EventLoopEndpoint {
+
+    @Resource
+    private EventLoopWatchdog eventLoopWatchdog;
+
+    @ReadOperation
+    public Map<String, Object> eventLoop() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", eventLoopWatchdog.isEnabled());
+        result.put("stallThresholdMillis", eventLoopWatchdog.getStallThreshold().toMillis());
+        result.put("stalls", eventLoopWatchdog.recentStalls());
+        return result;
+    }
+}
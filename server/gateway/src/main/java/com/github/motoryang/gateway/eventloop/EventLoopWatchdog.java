@@ -0,0 +1,227 @@
+package com.github.motoryang.gateway.eventloop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.netty.http.HttpResources;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 事件循环卡顿监测
+ * <p>
+ * 守护线程按固定间隔向每个 Reactor Netty 事件循环投递一个空的探测任务，
+ * 探测任务从投递到执行的耗时即该事件循环的排队延迟，记入 gateway.eventloop.lag。
+ * 探测任务超过阈值仍未执行时采集一次事件循环线程栈（此时线程正卡在阻塞点上），
+ * 探测任务最终执行后计入 gateway.eventloop.stalls 并保留最近的卡顿记录，/actuator/eventloop 查看。
+ * 探测任务在事件循环上只记录耗时，指标、记录与日志都由守护线程在下一轮处理
+ * <p>
+ * gateway.eventloop.fail-on-blocking=true 时安装 {@link BlockingCallGuard}，
+ * 事件循环上的阻塞调用直接失败，用于测试环境（test profile）尽早暴露问题
+ */
+@Slf4j
+@Component
+public class EventLoopWatchdog {
+
+    private static final String LAG_METRIC = "gateway.eventloop.lag";
+    private static final String STALLS_METRIC = "gateway.eventloop.stalls";
+    private static final String BLOCKING_CALLS_METRIC = "gateway.eventloop.blocking.calls";
+    // 卡顿日志的最小间隔，避免持续卡顿时刷屏
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int LOG_STACK_DEPTH = 20;
+
+    @Value("${gateway.eventloop.watchdog.enabled:true}")
+    private boolean enabled;
+
+    // 探测间隔，同时决定卡顿栈的采集精度
+    @Value("${gateway.eventloop.watchdog.interval:10ms}")
+    private Duration interval;
+
+    @Value("${gateway.eventloop.watchdog.stall-threshold:50ms}")
+    private Duration stallThreshold;
+
+    @Value("${gateway.eventloop.watchdog.max-snapshots:20}")
+    private int maxSnapshots;
+
+    @Value("${gateway.eventloop.fail-on-blocking:false}")
+    private boolean failOnBlocking;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final ScheduledExecutorService watchdogExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("gateway-eventloop-watchdog").daemon().factory());
+
+    private final Deque<StallSnapshot> snapshots = new ArrayDeque<>();
+
+    private long thresholdNanos;
+    private Timer lagTimer;
+    private Counter stallCounter;
+    private List<LoopProbe> probes = List.of();
+    // 只由守护线程读写
+    private long lastLogAt = System.nanoTime() - LOG_INTERVAL_NANOS;
+
+    @PostConstruct
+    public void init() {
+        this.thresholdNanos = stallThreshold.toNanos();
+        this.lagTimer = Timer.builder(LAG_METRIC)
+                .description("Delay between submitting a probe task to an event loop and its execution")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.stallCounter = Counter.builder(STALLS_METRIC)
+                .description("Event loop probe tasks delayed beyond the stall threshold")
+                .register(meterRegistry);
+        if (failOnBlocking) {
+            // 尽早安装，使启动阶段之后加载的类同样被检测
+            BlockingCallGuard.install(Counter.builder(BLOCKING_CALLS_METRIC)
+                    .description("Blocking calls detected on event loop threads")
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 服务端口绑定后事件循环已创建，此时开始探测
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // 网关服务端与 SCG 的 HttpClient 默认共用全局 HttpResources 的事件循环
+        EventLoopGroup group = HttpResources.get().onServer(LoopResources.DEFAULT_NATIVE);
+        List<LoopProbe> loopProbes = new ArrayList<>();
+        for (EventExecutor executor : group) {
+            loopProbes.add(new LoopProbe(executor));
+        }
+        this.probes = List.copyOf(loopProbes);
+        long intervalNanos = interval.toNanos();
+        watchdogExecutor.scheduleWithFixedDelay(this::tickSafely, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        log.info("Event loop watchdog started: {} loops, threshold {}ms",
+                probes.size(), stallThreshold.toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        watchdogExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Duration getStallThreshold() {
+        return stallThreshold;
+    }
+
+    /**
+     * 最近的卡顿记录，按时间倒序
+     */
+    public List<StallSnapshot> recentStalls() {
+        synchronized (snapshots) {
+            return List.copyOf(snapshots);
+        }
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (Exception e) {
+            log.warn("Event loop watchdog tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        for (LoopProbe probe : probes) {
+            if (!probe.pending) {
+                if (probe.lagNanos >= 0) {
+                    record(probe.thread, probe.lagNanos, probe.stack);
+                }
+                probe.submit(now);
+            } else if (probe.stack == null && now - probe.submittedAt > thresholdNanos && probe.thread != null) {
+                // 仍在卡顿中：采集一次线程栈，探测任务执行时随记录一起保存
+                probe.stack = probe.thread.getStackTrace();
+            }
+        }
+    }
+
+    private void record(Thread thread, long lagNanos, StackTraceElement[] stack) {
+        lagTimer.record(lagNanos, TimeUnit.NANOSECONDS);
+        if (lagNanos <= thresholdNanos) {
+            return;
+        }
+        stallCounter.increment();
+        List<String> frames = stack == null ? List.of() : Arrays.stream(stack).map(String::valueOf).toList();
+        StallSnapshot snapshot = new StallSnapshot(thread.getName(),
+                TimeUnit.NANOSECONDS.toMillis(lagNanos), System.currentTimeMillis(), frames);
+        synchronized (snapshots) {
+            snapshots.addFirst(snapshot);
+            while (snapshots.size() > maxSnapshots) {
+                snapshots.removeLast();
+            }
+        }
+        long now = System.nanoTime();
+        if (now - lastLogAt >= LOG_INTERVAL_NANOS) {
+            lastLogAt = now;
+            log.warn("Event loop {} stalled for {}ms:\n\t{}", snapshot.thread(), snapshot.lagMillis(),
+                    String.join("\n\t", frames.subList(0, Math.min(frames.size(), LOG_STACK_DEPTH))));
+        }
+    }
+
+    /**
+     * 单个事件循环的探测状态：pending 期间探测任务写回 thread 与 lagNanos，其余字段只由守护线程写入
+     */
+    private final class LoopProbe implements Runnable {
+
+        private final EventExecutor executor;
+        private volatile Thread thread;
+        private volatile boolean pending;
+        private volatile long submittedAt;
+        private volatile long lagNanos = -1;
+        private volatile StackTraceElement[] stack;
+
+        LoopProbe(EventExecutor executor) {
+            this.executor = executor;
+        }
+
+        void submit(long now) {
+            submittedAt = now;
+            lagNanos = -1;
+            stack = null;
+            pending = true;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // 事件循环已关闭（应用停止中）
+                pending = false;
+            }
+        }
+
+        @Override
+        public void run() {
+            lagNanos = System.nanoTime() - submittedAt;
+            thread = Thread.currentThread();
+            pending = false;
+        }
+    }
+}
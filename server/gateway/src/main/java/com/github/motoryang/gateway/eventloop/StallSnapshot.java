@@ -0,0 +1,14 @@
+package com.github.motoryang.gateway.eventloop;
+
+import java.util.List;
+
+/**
+ * 一次事件循环卡顿记录
+ *
+ * @param thread     卡顿的事件循环线程名
+ * @param lagMillis  探测任务排队到执行的耗时（毫秒）
+ * @param timestamp  探测任务执行时间（毫秒时间戳）
+ * @param stackTrace 超过阈值时采集的线程栈，探测任务在采集前已执行则为空
+ */
+public record StallSnapshot(String thread, long lagMillis, long timestamp, List<String> stackTrace) {
+}
@@ -1,59 +1,50 @@
 package com.github.motoryang.gateway.filter;
 
-import com.github.motoryang.gateway.constants.Constants;
-import com.github.motoryang.gateway.utils.PublicResourceMatcher;
+import com.github.motoryang.gateway.auth.GatewayPrincipal;
+import com.github.motoryang.gateway.auth.SessionEpochRegistry;
+import com.github.motoryang.gateway.auth.TokenLookup;
+import com.github.motoryang.gateway.auth.TokenRejection;
+import com.github.motoryang.gateway.auth.TokenVerifier;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.TimedStage;
+import com.github.motoryang.gateway.utils.PathClassifier;
 import com.github.motoryang.gateway.utils.TokenUtils;
-import com.github.motoryang.gateway.utils.WhiteListMatcher;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-
 /**
  * 全局认证过滤器
+ * <p>
+ * 校验通过的主体保存在 exchange 属性中，由 GatewayInternalFilter 统一写入下游用户上下文
  */
 @Slf4j
 @Component
+@TimedStage(GatewayStage.AUTH)
 public class AuthGlobalFilter implements GlobalFilter, Ordered {
 
-    @Value("${auth.jwt.secret}")
-    private String jwtSecret;
-
-    private byte[] secretBytes;
-
     @Resource
-    private WhiteListMatcher whiteListMatcher;
+    private TokenVerifier tokenVerifier;
     @Resource
-    private PublicResourceMatcher publicResourceMatcher;
+    private SessionEpochRegistry sessionEpochRegistry;
     @Resource
-    private ReactiveStringRedisTemplate reactiveStringRedisTemplate;
-
-    @PostConstruct
-    public void init() {
-        this.secretBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-    }
+    private PathClassifier pathClassifier;
+    @Resource
+    private TokenLookup tokenLookup;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         var request = exchange.getRequest();
-        var path = request.getURI().getPath();
 
-        // 白名单或公开静态资源跳过认证
-        if (whiteListMatcher.isWhitelisted(path) || publicResourceMatcher.isPublicByPrefix(path)) {
-            exchange.getAttributes().put(Constants.SKIP_SECURITY, Boolean.TRUE);
+        // 白名单或公开静态资源跳过认证（分类结果存入 exchange 属性，后续过滤器直接读取）
+        if (!pathClassifier.classify(exchange).requiresAuthentication()) {
             return chain.filter(exchange);
         }
 
@@ -62,42 +53,65 @@ public class AuthGlobalFilter implements GlobalFilter, Ordered {
             return TokenUtils.unauthorized(exchange, "请先登录");
         }
 
+        // 已知失效的令牌（机器人重放、批量登出后的旧令牌）不再解析
+        TokenRejection rejection = tokenVerifier.knownRejection(token);
+        if (rejection != null) {
+            return TokenUtils.unauthorized(exchange, rejection.message());
+        }
+
         try {
-            // 解析 Claims
-            Claims claims = TokenUtils.parseToken(token, secretBytes);
-            String userId = claims.get("userId", String.class);
-            String username = claims.get("username", String.class);
-            @SuppressWarnings("unchecked")
-            List<String> roles = claims.get("roles", List.class);
-            if (roles == null || roles.isEmpty()) {
+            // 校验令牌（结果存入 exchange 属性，后续过滤器不再重复解析）
+            GatewayPrincipal principal = tokenVerifier.verify(exchange, token);
+            String userId = principal.userId();
+            if (principal.roles().isEmpty()) {
                 return TokenUtils.unauthorized(exchange, "未获取到角色信息");
             }
-            String rolesStr = String.join(",", roles);
 
-            // 校验 Redis 中的 Token，并获取权限列表
-            return reactiveStringRedisTemplate.opsForValue()
-                    .get(Constants.REDIS_TOKEN_KEY + userId)
-                    .defaultIfEmpty("EMPTY")
-                    .flatMap(redisToken -> {
-                        if ("EMPTY".equals(redisToken)) {
+            // 会话以纪元区分设备，不携带纪元的旧版令牌需要重新登录
+            if (!principal.hasSessionEpoch()) {
+                return TokenUtils.unauthorized(exchange, "登录已过期");
+            }
+
+            // 纪元模式：内存中已知该用户的最小有效纪元时，低于它的令牌直接拒绝、等于它的令牌直接放行；
+            // 高于它的纪元可能已被单设备登出或替换，仍回源 Redis 校验
+            if (sessionEpochRegistry.isEnabled()) {
+                Long minValidEpoch = sessionEpochRegistry.minValidEpoch(userId);
+                if (minValidEpoch != null) {
+                    if (principal.sessionEpoch() < minValidEpoch) {
+                        return TokenUtils.unauthorized(exchange, "登录已失效");
+                    }
+                    if (principal.sessionEpoch() == minValidEpoch) {
+                        return chain.filter(exchange);
+                    }
+                }
+            }
+
+            // 校验 Redis 会话中该纪元是否仍有效（同一会话的并发查询合并为一次）
+            long epoch = principal.sessionEpoch();
+            long epochGeneration = sessionEpochRegistry.generation();
+            return tokenLookup.lookup(userId, epoch)
+                    .flatMap(session -> {
+                        boolean current = session.live();
+                        if (!session.exists()) {
+                            // 会话已清空（登出或过期）：该纪元及之前的令牌全部失效
+                            sessionEpochRegistry.seed(userId, epoch + 1, epochGeneration);
                             return TokenUtils.unauthorized(exchange, "登录已过期");
                         }
-                        if (!redisToken.equals(token)) {
+                        // 回填纪元表：以 Redis 中的最小有效纪元为准。纪元表只能表达下界，
+                        // 多设备在线时下界之上可能有已被替换或淘汰的纪元，不回填，该用户始终按会话校验
+                        if (session.devices() <= 1 && (current || session.minValidEpoch() > epoch)) {
+                            sessionEpochRegistry.seed(userId, session.minValidEpoch(), epochGeneration);
+                        }
+                        if (!current) {
                             return TokenUtils.unauthorized(exchange, "账号已在别处登录");
                         }
-                        // 构建带有用户信息的 Request
-                        var mutatedRequest = request.mutate()
-                                .header(Constants.USER_ID_HEADER, userId)
-                                .header(Constants.USERNAME_HEADER, username)
-                                .header(Constants.USER_ROLES_HEADER, rolesStr)
-                                .build();
-                        return chain.filter(exchange.mutate().request(mutatedRequest).build());
+                        return chain.filter(exchange);
                     });
 
         } catch (ExpiredJwtException e) {
-            return TokenUtils.unauthorized(exchange, "令牌已过期");
+            return TokenUtils.unauthorized(exchange, TokenRejection.EXPIRED.message());
         } catch (Exception e) {
-            return TokenUtils.unauthorized(exchange, "无效的认证令牌");
+            return TokenUtils.unauthorized(exchange, TokenRejection.INVALID.message());
         }
     }
 
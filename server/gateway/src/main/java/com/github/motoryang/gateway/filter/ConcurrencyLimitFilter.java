@@ -0,0 +1,105 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.limiter.AdaptiveConcurrencyLimit;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.TimedStage;
+import com.github.motoryang.gateway.properties.ConcurrencyLimitProperties;
+import com.github.motoryang.gateway.utils.TokenUtils;
+import com.github.motoryang.gateway.utils.WebSocketUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * 路由自适应并发限制过滤器
+ * <p>
+ * 每个路由一个 {@link AdaptiveConcurrencyLimit}，超过上限的请求立即返回 503 + Retry-After，
+ * 避免下游变慢时请求在网关无限堆积。名额在响应结束时才释放，WebSocket 连接与 exclude-routes 中的长连接路由不参与限制。
+ * 指标（标签 route）：gateway.concurrency.limit、gateway.concurrency.inflight、gateway.concurrency.rejected
+ */
+@Slf4j
+@Component
+@TimedStage(GatewayStage.CONCURRENCY_LIMIT)
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    private ConcurrencyLimitProperties properties;
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, RouteLimit> routeLimits = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.enabled() || route == null || properties.excludeRoutes().contains(route.getId())
+                || WebSocketUtils.isWebSocket(exchange)) {
+            return chain.filter(exchange);
+        }
+
+        RouteLimit routeLimit = routeLimits.get(route.getId());
+        if (routeLimit == null) {
+            routeLimit = routeLimits.computeIfAbsent(route.getId(), this::newRouteLimit);
+        }
+        AdaptiveConcurrencyLimit limit = routeLimit.limit();
+        int inFlight = limit.tryAcquire();
+        if (inFlight < 0) {
+            routeLimit.rejected().increment();
+            return TokenUtils.serviceUnavailable(exchange, "服务繁忙，请稍后重试", Math.max(1, properties.retryAfter().toSeconds()));
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limit.release();
+                        return;
+                    }
+                    boolean dropped = signal == SignalType.ON_ERROR || isOverloaded(exchange.getResponse().getStatusCode());
+                    limit.release(System.nanoTime() - start, inFlight, dropped);
+                });
+    }
+
+    private static boolean isOverloaded(HttpStatusCode status) {
+        return status != null && (status.value() == HttpStatus.BAD_GATEWAY.value()
+                || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    private RouteLimit newRouteLimit(String routeId) {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        Gauge.builder("gateway.concurrency.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .tag("route", routeId).register(meterRegistry);
+        Gauge.builder("gateway.concurrency.inflight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .tag("route", routeId).register(meterRegistry);
+        Counter rejected = meterRegistry.counter("gateway.concurrency.rejected", "route", routeId);
+        log.info("Concurrency limit created for route {}, initialLimit={}", routeId, limit.limit());
+        return new RouteLimit(limit, rejected);
+    }
+
+    private record RouteLimit(AdaptiveConcurrencyLimit limit, Counter rejected) {
+    }
+
+    @Override
+    public int getOrder() {
+        // 在鉴权之后：被拒绝的未授权请求不占用名额
+        return 1;
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.StageTimings;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 下游调用计时：位于路由过滤器（NettyRoutingFilter 等）之前，
+ * 记录从发起转发到收到下游响应头的耗时（响应体由 NettyWriteResponseFilter 在之后写出）
+ */
+@Component
+public class DownstreamTimingFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        StageTimings timings = exchange.getAttribute(Constants.STAGE_TIMINGS);
+        if (timings == null) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.ON_COMPLETE) {
+                        timings.pass(GatewayStage.DOWNSTREAM, start);
+                    } else {
+                        timings.finish(GatewayStage.DOWNSTREAM, start, signal);
+                    }
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // WebsocketRoutingFilter 为 LOWEST_PRECEDENCE - 1，NettyRoutingFilter 为 LOWEST_PRECEDENCE
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+}
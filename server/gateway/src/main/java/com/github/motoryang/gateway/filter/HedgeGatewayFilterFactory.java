@@ -0,0 +1,298 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.hedge.HedgeBudget;
+import com.github.motoryang.gateway.hedge.LatencyTracker;
+import com.github.motoryang.gateway.loadbalancer.InstanceStatsRegistry;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.StageTimings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.setAlreadyRouted;
+
+/**
+ * GET 请求对冲过滤器（按路由启用：filters: - name: Hedge）
+ * <p>
+ * 在负载均衡选定实例之后接管转发：先向所选实例发送请求，
+ * 若超过该路由近期耗时的分位数（限制在 min-delay ~ max-delay 之间）仍未响应，
+ * 再向另一个实例发送相同请求，取先到的响应，另一个随即取消。
+ * 对冲受令牌预算限制（见 {@link HedgeBudget}），不会在下游整体故障时放大负载。
+ * 响应体会在网关内缓冲，只适合体积有限的只读接口。
+ * <p>
+ * 指标（标签 route）：gateway.hedge.sent、gateway.hedge.won、gateway.hedge.budget.exhausted
+ */
+@Slf4j
+@Component
+public class HedgeGatewayFilterFactory extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+
+    /**
+     * 紧跟在负载均衡统计过滤器之后（此时已选定实例），在 NettyRoutingFilter 之前
+     */
+    private static final int HEDGE_FILTER_ORDER = ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final InstanceStatsRegistry instanceStatsRegistry;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient;
+
+    public HedgeGatewayFilterFactory(LoadBalancerClientFactory loadBalancerClientFactory,
+                                     ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                     InstanceStatsRegistry instanceStatsRegistry,
+                                     MeterRegistry meterRegistry,
+                                     HttpClient httpClient) {
+        super(Config.class);
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.instanceStatsRegistry = instanceStatsRegistry;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) config.getMaxBodySize().toBytes()))
+                .build();
+        HedgeState state = new HedgeState(config, webClient);
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, state), HEDGE_FILTER_ORDER);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, HedgeState state) {
+        URI primaryUri = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (exchange.getRequest().getMethod() != HttpMethod.GET
+                || primaryUri == null || route == null || lbResponse == null || !lbResponse.hasServer()) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance primary = lbResponse.getServer();
+        RouteMetrics metrics = state.metrics(route.getId());
+        state.budget.deposit();
+
+        List<HttpHeadersFilter> headersFilters = headersFiltersProvider.getIfAvailable();
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(headersFilters, exchange);
+        headers.remove(HttpHeaders.HOST);
+
+        Mono<ResponseEntity<byte[]>> primaryCall = state.sendPrimary(primaryUri, headers);
+        Mono<ResponseEntity<byte[]>> hedgeCall = Mono.delay(state.delay())
+                .flatMap(tick -> pickOther(primary))
+                .flatMap(other -> {
+                    if (!state.budget.tryWithdraw()) {
+                        metrics.budgetExhausted().increment();
+                        return Mono.empty();
+                    }
+                    metrics.sent().increment();
+                    URI hedgeUri = LoadBalancerUriTools.reconstructURI(other, primaryUri);
+                    long start = instanceStatsRegistry.start(other);
+                    return state.send(hedgeUri, headers)
+                            .doOnSuccess(entity -> {
+                                metrics.won().increment();
+                                instanceStatsRegistry.finish(other, start, true);
+                            })
+                            .doOnError(e -> instanceStatsRegistry.finish(other, start, true))
+                            .doOnCancel(() -> instanceStatsRegistry.finish(other, start, false));
+                });
+
+        setAlreadyRouted(exchange);
+        // 已路由的请求不再经过 DownstreamTimingFilter，在此记录下游阶段（到收到完整响应为止）
+        StageTimings timings = exchange.getAttribute(Constants.STAGE_TIMINGS);
+        long start = System.nanoTime();
+        return Mono.firstWithValue(primaryCall, hedgeCall)
+                // 两路都失败时抛出主请求的异常，交给网关统一的错误处理
+                .onErrorMap(NoSuchElementException.class,
+                        e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e)
+                .doOnNext(entity -> {
+                    if (timings != null) {
+                        timings.pass(GatewayStage.DOWNSTREAM, start);
+                    }
+                })
+                .doOnError(e -> {
+                    if (timings != null) {
+                        timings.finish(GatewayStage.DOWNSTREAM, start, SignalType.ON_ERROR);
+                    }
+                })
+                .flatMap(entity -> writeResponse(exchange, entity, headersFilters));
+    }
+
+    /**
+     * 从同一服务中随机选择另一个实例，没有其他实例时不对冲
+     */
+    private Mono<ServiceInstance> pickOther(ServiceInstance primary) {
+        ServiceInstanceListSupplier supplier = loadBalancerClientFactory
+                .getLazyProvider(primary.getServiceId(), ServiceInstanceListSupplier.class)
+                .getIfAvailable();
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next().flatMap(instances -> {
+            List<ServiceInstance> others = instances.stream()
+                    .filter(i -> !(i.getHost().equals(primary.getHost()) && i.getPort() == primary.getPort()))
+                    .toList();
+            if (others.isEmpty()) {
+                return Mono.empty();
+            }
+            return Mono.just(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+        });
+    }
+
+    private Mono<Void> writeResponse(ServerWebExchange exchange, ResponseEntity<byte[]> entity,
+                                     List<HttpHeadersFilter> headersFilters) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(entity.getStatusCode());
+        HttpHeaders responseHeaders = HttpHeadersFilter.filter(headersFilters, entity.getHeaders(), exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        response.getHeaders().putAll(responseHeaders);
+        response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        byte[] body = entity.getBody();
+        if (body == null) {
+            return response.setComplete();
+        }
+        response.getHeaders().setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    /**
+     * 每个路由独立的耗时统计、预算与指标
+     */
+    private final class HedgeState {
+
+        private final Config config;
+        private final WebClient webClient;
+        private final LatencyTracker latency;
+        private final HedgeBudget budget;
+        private volatile RouteMetrics metrics;
+
+        private HedgeState(Config config, WebClient webClient) {
+            this.config = config;
+            this.webClient = webClient;
+            this.latency = new LatencyTracker(config.getPercentile());
+            this.budget = new HedgeBudget(config.getBudgetRatio(), config.getBudgetCap());
+        }
+
+        private Duration delay() {
+            long p = latency.percentileNanos();
+            if (p < 0) {
+                return config.getMaxDelay();
+            }
+            long nanos = Math.max(config.getMinDelay().toNanos(), Math.min(config.getMaxDelay().toNanos(), p));
+            return Duration.ofNanos(nanos);
+        }
+
+        /**
+         * 发送主请求并计入耗时统计。被对冲请求抢先而取消时记录取消前已等待的时间（实际耗时的下界），
+         * 否则越慢的主请求越容易被取消而漏记，分位数会被低估。
+         * 对冲请求在延迟之后才发出，其耗时不代表路由的整体分布，不计入
+         */
+        private Mono<ResponseEntity<byte[]>> sendPrimary(URI uri, HttpHeaders headers) {
+            return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return send(uri, headers).doFinally(signal -> {
+                    if (signal != SignalType.ON_ERROR) {
+                        latency.record(System.nanoTime() - start);
+                    }
+                });
+            });
+        }
+
+        /**
+         * 发送请求并缓冲响应
+         */
+        private Mono<ResponseEntity<byte[]>> send(URI uri, HttpHeaders headers) {
+            return webClient.get()
+                    .uri(uri)
+                    .headers(h -> h.addAll(headers))
+                    .exchangeToMono(response -> response.toEntity(byte[].class));
+        }
+
+        private RouteMetrics metrics(String routeId) {
+            RouteMetrics current = metrics;
+            if (current == null) {
+                current = new RouteMetrics(
+                        meterRegistry.counter("gateway.hedge.sent", "route", routeId),
+                        meterRegistry.counter("gateway.hedge.won", "route", routeId),
+                        meterRegistry.counter("gateway.hedge.budget.exhausted", "route", routeId));
+                metrics = current;
+            }
+            return current;
+        }
+    }
+
+    private record RouteMetrics(Counter sent, Counter won, Counter budgetExhausted) {
+    }
+
+    /**
+     * 对冲配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 触发对冲的耗时分位数
+         */
+        private double percentile = 0.95;
+
+        /**
+         * 对冲延迟下界
+         */
+        private Duration minDelay = Duration.ofMillis(20);
+
+        /**
+         * 对冲延迟上界（样本不足时使用）
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        /**
+         * 每个普通请求存入的对冲令牌数，即对冲量占普通请求量的最大比例
+         */
+        private double budgetRatio = 0.1;
+
+        /**
+         * 对冲令牌上限（允许的突发对冲数）
+         */
+        private double budgetCap = 10;
+
+        /**
+         * 单个响应体的最大缓冲大小
+         */
+        private DataSize maxBodySize = DataSize.ofMegabytes(4);
+    }
+}
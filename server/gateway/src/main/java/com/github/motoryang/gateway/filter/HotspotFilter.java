@@ -0,0 +1,40 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.auth.GatewayPrincipal;
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.hotspot.HotspotTracker;
+import jakarta.annotation.Resource;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 热点流量统计过滤器：按用户与 API 计入 {@link HotspotTracker}
+ */
+@Component
+public class HotspotFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    private HotspotTracker hotspotTracker;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (hotspotTracker.isEnabled()) {
+            ServerHttpRequest request = exchange.getRequest();
+            GatewayPrincipal principal = exchange.getAttribute(Constants.GATEWAY_PRINCIPAL);
+            hotspotTracker.record(principal == null ? null : principal.userId(),
+                    request.getMethod().name(), request.getURI().getPath());
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        // 在认证之后、限流之前：被限流的请求同样计入，才能看出是谁在持续请求
+        return -96;
+    }
+}
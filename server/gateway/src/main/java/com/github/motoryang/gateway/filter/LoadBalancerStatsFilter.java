@@ -0,0 +1,58 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.loadbalancer.InstanceStatsRegistry;
+import com.github.motoryang.gateway.utils.WebSocketUtils;
+import jakarta.annotation.Resource;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+
+/**
+ * 负载均衡统计过滤器
+ * <p>
+ * 紧跟在 ReactiveLoadBalancerClientFilter 之后，记录所选实例的进行中请求数与响应耗时，
+ * 供 PeakEwmaLoadBalancer 选择实例。耗时在响应头提交时记录，不包含响应体的传输时间；
+ * 客户端取消的请求只减少进行中计数，不计入耗时。WebSocket 连接持续整个会话，不参与统计
+ */
+@Component
+public class LoadBalancerStatsFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    private InstanceStatsRegistry instanceStatsRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Response<ServiceInstance> response = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (response == null || !response.hasServer() || WebSocketUtils.isWebSocket(exchange)) {
+            return chain.filter(exchange);
+        }
+        ServiceInstance instance = response.getServer();
+        long start = instanceStatsRegistry.start(instance);
+        AtomicBoolean observed = new AtomicBoolean();
+        exchange.getResponse().beforeCommit(() -> {
+            if (observed.compareAndSet(false, true)) {
+                instanceStatsRegistry.observe(instance, start);
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange)
+                .doFinally(signal -> instanceStatsRegistry.finish(instance, start,
+                        signal != SignalType.CANCEL && observed.compareAndSet(false, true)));
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+    }
+}
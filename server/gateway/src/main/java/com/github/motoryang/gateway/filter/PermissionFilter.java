@@ -1,7 +1,11 @@
 package com.github.motoryang.gateway.filter;
 
+import com.github.motoryang.gateway.auth.GatewayPrincipal;
 import com.github.motoryang.gateway.constants.Constants;
 import com.github.motoryang.gateway.handler.PermissionCacheHandler;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.TimedStage;
+import com.github.motoryang.gateway.utils.PathClassifier;
 import com.github.motoryang.gateway.utils.TokenUtils;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
@@ -9,38 +13,41 @@ import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
-
 @Slf4j
 @Component
+@TimedStage(GatewayStage.PERMISSION)
 public class PermissionFilter implements GlobalFilter, Ordered {
 
     @Resource
     private PermissionCacheHandler permissionCacheHandler;
+    @Resource
+    private PathClassifier pathClassifier;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
 
-        // 白名单或公开静态资源跳过认证
-        var skipSecurity = Boolean.TRUE.equals(exchange.getAttributes().get(Constants.SKIP_SECURITY));
+        // 白名单、公开静态资源跳过鉴权
         // TODO: 临时在后端修改下这里，让websocket先放过去，前端需要拆分资源，现在的资源设计不支持定义ws接口权限
-        if (skipSecurity || exchange.getRequest().getURI().getPath().startsWith("/ws")) {
-            return  chain.filter(exchange);
+        if (!pathClassifier.classify(exchange).requiresPermission()) {
+            return chain.filter(exchange);
         }
 
         var request = exchange.getRequest();
         var path = request.getURI().getPath();
         var httpMethod = request.getMethod();
-        List<String> roles = request.getHeaders().get(Constants.USER_ROLES_HEADER);
+        GatewayPrincipal principal = exchange.getAttribute(Constants.GATEWAY_PRINCIPAL);
 
-        if (roles == null || roles.isEmpty()) {
+        if (principal == null || !StringUtils.hasText(principal.rolesHeader())) {
             return TokenUtils.unauthorized(exchange, "未获取到角色信息");
         }
 
-        if (roles.contains("ADMIN")) {
+        // 角色编码只解码一次，后续判定均为位运算
+        long[] roles = permissionCacheHandler.decodeRoles(principal.rolesHeader());
+        if (permissionCacheHandler.isAdmin(roles)) {
             return chain.filter(exchange);
         }
 
@@ -0,0 +1,53 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.auth.GatewayPrincipal;
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.limiter.DistributedRateLimiter;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.TimedStage;
+import com.github.motoryang.gateway.properties.RateLimitProperties;
+import com.github.motoryang.gateway.utils.TokenUtils;
+import jakarta.annotation.Resource;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 请求频率限制过滤器
+ * <p>
+ * 已认证请求按用户ID限流（用户由 {@link AuthGlobalFilter} 校验后存入 exchange 属性），
+ * 所有请求再按匹配到的 API 规则限流；超出时返回 429 + Retry-After
+ */
+@Component
+@TimedStage(GatewayStage.RATE_LIMIT)
+public class RateLimitFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    private DistributedRateLimiter rateLimiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        GatewayPrincipal principal = exchange.getAttribute(Constants.GATEWAY_PRINCIPAL);
+        String userId = principal == null ? null : principal.userId();
+
+        RateLimitProperties.Limit rejected = rateLimiter.tryAcquire(
+                userId, request.getMethod().name(), request.getURI().getPath());
+        if (rejected != null) {
+            // 补充一个令牌所需的时间，至少 1 秒
+            long retryAfter = Math.max(1, (long) Math.ceil(1 / rejected.rate()));
+            return TokenUtils.tooManyRequests(exchange, "请求过于频繁，请稍后重试", retryAfter);
+        }
+        return chain.filter(exchange);
+    }
+
+    @Override
+    public int getOrder() {
+        // 在认证之后、静态资源与鉴权之前：超限请求不再消耗后续处理
+        return -95;
+    }
+}
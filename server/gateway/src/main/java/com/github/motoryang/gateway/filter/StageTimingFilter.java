@@ -0,0 +1,38 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.metrics.StageTimingRecorder;
+import com.github.motoryang.gateway.metrics.StageTimings;
+import jakarta.annotation.Resource;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 阶段计时入口：最先执行，为请求创建 {@link StageTimings}，请求结束时统一记录指标
+ */
+@Component
+public class StageTimingFilter implements GlobalFilter, Ordered {
+
+    @Resource
+    private StageTimingRecorder stageTimingRecorder;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!stageTimingRecorder.isEnabled()) {
+            return chain.filter(exchange);
+        }
+        StageTimings timings = new StageTimings();
+        exchange.getAttributes().put(Constants.STAGE_TIMINGS, timings);
+        return chain.filter(exchange)
+                .doFinally(signal -> stageTimingRecorder.record(exchange, timings));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
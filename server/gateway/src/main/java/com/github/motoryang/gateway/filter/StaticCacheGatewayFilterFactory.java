@@ -0,0 +1,130 @@
+package com.github.motoryang.gateway.filter;
+
+import com.github.motoryang.gateway.staticcache.StaticObjectCache;
+import com.github.motoryang.gateway.utils.PathClassifier;
+import com.github.motoryang.gateway.utils.PathType;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+/**
+ * 静态对象缓存过滤器（按路由启用：filters: - name: StaticCache）
+ * <p>
+ * 缓存公开静态资源中体积较小的对象（头像等），命中时由网关直接响应，不再转发到 MinIO，
+ * 细节见 {@link StaticObjectCache}。带 Range 的请求、非 GET 请求与超过 max-object-size 的对象直接转发。
+ * 同一缓存目录的缓存实例在路由刷新后继续复用
+ */
+@Component
+public class StaticCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<StaticCacheGatewayFilterFactory.Config> {
+
+    /**
+     * 在 RouteToRequestUrlFilter 之后（此时已得到完成路径改写的转发地址）
+     */
+    private static final int STATIC_CACHE_FILTER_ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+
+    private final PathClassifier pathClassifier;
+    private final MeterRegistry meterRegistry;
+    private final HttpClient httpClient;
+
+    // 缓存目录 -> 缓存实例
+    private final Map<String, StaticObjectCache> caches = new ConcurrentHashMap<>();
+
+    public StaticCacheGatewayFilterFactory(PathClassifier pathClassifier,
+                                           MeterRegistry meterRegistry,
+                                           HttpClient httpClient) {
+        super(Config.class);
+        this.pathClassifier = pathClassifier;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = httpClient;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        StaticObjectCache cache = caches.computeIfAbsent(config.getDiskDir(), dir -> new StaticObjectCache(
+                StringUtils.hasText(dir) ? Path.of(dir) : null,
+                config.getMemoryMaxSize().toBytes(),
+                config.getDiskMaxSize().toBytes(),
+                config.getMaxObjectSize().toBytes(),
+                config.getMaxAge(),
+                config.getFetchTimeout(),
+                httpClient,
+                meterRegistry));
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, cache, config),
+                STATIC_CACHE_FILTER_ORDER);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, StaticObjectCache cache,
+                              Config config) {
+        URI uri = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        var request = exchange.getRequest();
+        if (uri == null
+                || request.getMethod() != HttpMethod.GET
+                || request.getHeaders().containsKey(HttpHeaders.RANGE)
+                || (config.isPublicOnly() && pathClassifier.classify(exchange) != PathType.PUBLIC_STATIC)) {
+            return chain.filter(exchange);
+        }
+        return cache.handle(exchange, chain, uri);
+    }
+
+    /**
+     * 静态对象缓存配置
+     */
+    @Data
+    public static class Config {
+
+        /**
+         * 只缓存公开静态资源（无需认证即可访问的路径）
+         */
+        private boolean publicOnly = true;
+
+        /**
+         * 可缓存的最大对象大小
+         */
+        private DataSize maxObjectSize = DataSize.ofKilobytes(512);
+
+        /**
+         * 内存层容量
+         */
+        private DataSize memoryMaxSize = DataSize.ofMegabytes(32);
+
+        /**
+         * 磁盘层容量
+         */
+        private DataSize diskMaxSize = DataSize.ofMegabytes(512);
+
+        /**
+         * 磁盘层根目录，应为网关独占的目录；缓存文件写在其下的 pid-{pid} 子目录中。留空只使用内存层
+         */
+        private String diskDir = "";
+
+        /**
+         * 超过该时间的对象在使用前向源站重新验证（If-None-Match）
+         */
+        private Duration maxAge = Duration.ofSeconds(60);
+
+        /**
+         * 源站请求超时，超时后使用旧对象，没有旧对象时直接转发
+         */
+        private Duration fetchTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -1,13 +1,16 @@
 package com.github.motoryang.gateway.filter;
 
-import com.github.motoryang.gateway.utils.PublicResourceMatcher;
+import com.github.motoryang.gateway.auth.GatewayPrincipal;
+import com.github.motoryang.gateway.auth.TokenRejection;
+import com.github.motoryang.gateway.auth.TokenVerifier;
+import com.github.motoryang.gateway.metrics.GatewayStage;
+import com.github.motoryang.gateway.metrics.TimedStage;
+import com.github.motoryang.gateway.utils.PathClassifier;
+import com.github.motoryang.gateway.utils.PathType;
 import com.github.motoryang.gateway.utils.TokenUtils;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -16,46 +19,28 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
-
 /**
  * 静态资源过滤器
  * 处理 /static/ 路径下的资源访问权限
  */
 @Slf4j
 @Component
+@TimedStage(GatewayStage.STATIC_RESOURCES)
 public class StaticResourcesFilter implements GlobalFilter, Ordered {
 
-    private static final String STATIC_PREFIX = "/static/";
-
-    @Value("${auth.jwt.secret}")
-    private String jwtSecret;
-
-    private byte[] secretBytes;
-
     @Resource
-    private PublicResourceMatcher publicResourceMatcher;
-
-    @PostConstruct
-    public void init() {
-        this.secretBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-    }
+    private TokenVerifier tokenVerifier;
+    @Resource
+    private PathClassifier pathClassifier;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        var request = exchange.getRequest();
-        var path = request.getURI().getPath();
-
-        // 只处理静态资源路径
-        if (!path.startsWith(STATIC_PREFIX)) {
+        // 只处理私有静态资源，公开静态资源与其他路径直接放行
+        if (pathClassifier.classify(exchange) != PathType.PRIVATE_STATIC) {
             return chain.filter(exchange);
         }
 
-        // 公开资源跳过认证
-        if (publicResourceMatcher.isPublicByKeyword(path)) {
-            log.debug("访问公开静态资源: {}", path);
-            return chain.filter(exchange);
-        }
+        var request = exchange.getRequest();
 
         // 私有静态资源需要验证 Token
         var token = TokenUtils.getToken(request);
@@ -63,18 +48,23 @@ public class StaticResourcesFilter implements GlobalFilter, Ordered {
             return TokenUtils.unauthorized(exchange, "未提供认证令牌");
         }
 
+        TokenRejection rejection = tokenVerifier.knownRejection(token);
+        if (rejection != null) {
+            return TokenUtils.unauthorized(exchange, rejection.message());
+        }
+
         try {
-            Claims claims = TokenUtils.parseToken(token, secretBytes);
-            String tokenType = claims.get("tokenType", String.class);
-            if (!"access".equals(tokenType)) {
+            // AuthGlobalFilter 已校验过的令牌直接复用解析结果
+            GatewayPrincipal principal = tokenVerifier.verify(exchange, token);
+            if (!principal.isAccessToken()) {
                 return TokenUtils.unauthorized(exchange, "无效的令牌类型");
             }
             return chain.filter(exchange);
         } catch (ExpiredJwtException e) {
-            return TokenUtils.unauthorized(exchange, "令牌已过期");
+            return TokenUtils.unauthorized(exchange, TokenRejection.EXPIRED.message());
         } catch (Exception e) {
             log.warn("Token validation failed: {}", e.getMessage());
-            return TokenUtils.unauthorized(exchange, "无效的认证令牌");
+            return TokenUtils.unauthorized(exchange, TokenRejection.INVALID.message());
         }
     }
 
@@ -3,16 +3,17 @@ package com.github.motoryang.gateway.handler;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.motoryang.gateway.messaging.model.ApiPattern;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
 /**
  * Gateway 权限缓存处理器
@@ -22,59 +23,75 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class PermissionCacheHandler {
 
-    // 预编译后的API权限列表
-    private volatile List<ApiPattern> apiPatterns = List.of();
-    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final RoleRegistry roleRegistry;
+    private final MeterRegistry meterRegistry;
+
+    // 预编译后的API权限前缀树
+    private volatile PermissionTrie permissionTrie = PermissionTrie.EMPTY;
+
+    /**
+     * 热点缓存（按请求方法分区，避免每次请求拼接 key）：
+     * method(GET) -> 折叠 ID 段后的路径(/api/user/{id}) -> allowedRoles 位图
+     * <p>
+     * 条目记录计算它的前缀树，与当前前缀树不一致时视为未命中：
+     * 刷新前开始计算、刷新后才写入的旧结果不会被使用
+     * <p>
+     * 命中率、淘汰数等统计通过 gateway.permission.match 指标发布
+     */
+    private final Map<String, Cache<String, MatchResult>> matchResultCaches = new ConcurrentHashMap<>();
+
+    /**
+     * 解码角色请求头（逗号分隔）为角色位图，每个请求只需解码一次
+     */
+    public long[] decodeRoles(String rolesHeader) {
+        return roleRegistry.decode(rolesHeader);
+    }
 
     /**
-     * 热点缓存：
-     * requestKey(GET:/api/user/1) -> allowedRoles
+     * 是否为管理员
      */
-    private final Cache<String, Set<String>> matchResultCache =
-            Caffeine.newBuilder()
-                    .maximumSize(2000)
-                    .expireAfterWrite(2, TimeUnit.HOURS)
-                    .build();
+    public boolean isAdmin(long[] userRoles) {
+        return RoleBits.contains(userRoles, RoleRegistry.ADMIN_ID);
+    }
 
     /**
      * 鉴权入口
      */
-    public boolean hasAccess(Collection<String> userRoles, String method, String path) {
-        if (userRoles == null || userRoles.isEmpty()) {
+    public boolean hasAccess(long[] userRoles, String method, String path) {
+        if (userRoles == null || RoleBits.isEmpty(userRoles)) {
             return false;
         }
-        String requestKey = method + ":" + path;
-        Set<String> allowedRoles = matchResultCache.get(
-                requestKey,
-                key -> matchRoles(method, path)
-        );
-        if (allowedRoles == null || allowedRoles.isEmpty()) {
+        PermissionTrie trie = permissionTrie;
+        // 没有任何规则的请求方法直接拒绝，也避免为任意自定义方法创建缓存分区
+        if (!trie.supports(method)) {
             return false;
         }
+        Cache<String, MatchResult> cache = matchResultCaches.get(method);
+        if (cache == null) {
+            cache = matchResultCaches.computeIfAbsent(method, this::newMatchResultCache);
+        }
+        // 路径中的 UUID 等 ID 段折叠后再作为 key，避免高基数路径挤掉有效缓存
+        String cacheKey = trie.cacheKey(path);
+        MatchResult result = cache.getIfPresent(cacheKey);
+        if (result == null || result.trie() != trie) {
+            result = new MatchResult(trie, trie.match(method, path));
+            cache.put(cacheKey, result);
+        }
         // role 交集判定
-        return userRoles.stream().anyMatch(allowedRoles::contains);
-    }
-
-    /**
-     * API 模式匹配，找到允许访问的角色集合
-     */
-    private Set<String> matchRoles(String method, String path) {
-        return apiPatterns.stream()
-                .filter(entry ->
-                        entry.method().equalsIgnoreCase(method)
-                        && pathMatcher.match(entry.path(), path)
-                )
-                .flatMap(entry -> entry.roles().stream())
-                .collect(Collectors.toUnmodifiableSet());
+        return RoleBits.intersects(userRoles, result.allowedRoles());
     }
 
-    private boolean match(String apiPattern, String method, String path) {
-        String[] parts = apiPattern.split(":", 2);
-        return parts.length == 2
-                && method.equalsIgnoreCase(parts[0])
-                && pathMatcher.match(parts[1], path);
+    private Cache<String, MatchResult> newMatchResultCache(String method) {
+        Cache<String, MatchResult> cache = Caffeine.newBuilder()
+                .maximumSize(2000)
+                .expireAfterWrite(2, TimeUnit.HOURS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gateway.permission.match", "method", method);
+        return cache;
     }
 
     /**
@@ -88,9 +105,15 @@ public class PermissionCacheHandler {
                     return new ApiPattern(parts[0].toUpperCase(), parts[1], Set.copyOf(e.getValue()));
                 }).toList();
 
-        this.apiPatterns = compiled;
-        matchResultCache.invalidateAll();
+        this.permissionTrie = PermissionTrie.compile(compiled, roleRegistry);
+        matchResultCaches.values().forEach(Cache::invalidateAll);
 
-        log.info("Gateway permission cache refreshed, apiSize={}", compiled.size());
+        log.info("Gateway permission cache refreshed, apiSize={}, roleSize={}", compiled.size(), roleRegistry.size());
+    }
+
+    /**
+     * 匹配结果及计算它的前缀树
+     */
+    private record MatchResult(PermissionTrie trie, long[] allowedRoles) {
     }
 }
@@ -1,13 +1,27 @@
 package com.github.motoryang.gateway.handler;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.motoryang.common.utils.BackoffUtils;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +35,12 @@ import java.util.Set;
  * Key: perm:api:roles (HASH)
  * Field: GET:/api/user/**
  * Value: ADMIN,USER
+ * <p>
+ * system 服务每次刷新后递增 perm:api:version，版本未变化时跳过重载；
+ * 哈希通过 HSCAN 分批读取，最近一次加载结果落盘为本地快照，
+ * 网关重启时先用快照提供鉴权，不必等待 Redis。
+ * 快照默认不启用，应配置到网关独占的目录；只加载当前进程用户所有、且文件与所在目录
+ * 都不可被组和其他用户写入的快照，防止他人伪造规则
  *
  * @author motoryang
  */
@@ -30,9 +50,49 @@ import java.util.Set;
 public class PermissionCacheLoader implements ApplicationRunner {
 
     private static final String CACHE_KEY = "perm:api:roles";
+    private static final String VERSION_KEY = "perm:api:version";
+    private static final int SCAN_COUNT = 1000;
+
+    // 未知版本（Redis 中没有版本号，或尚未加载）
+    private static final long UNKNOWN_VERSION = -1L;
+
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
 
     private final StringRedisTemplate redisTemplate;
     private final PermissionCacheHandler cacheHandler;
+    private final ObjectMapper objectMapper;
+
+    @Value("${gateway.permission.snapshot-file:}")
+    private String snapshotFile;
+
+    // 当前已加载的版本，仅在刷新线程中写入
+    private volatile long loadedVersion = UNKNOWN_VERSION;
+
+    /**
+     * 本地快照预热：在 Web 服务开始接收请求之前完成
+     */
+    @PostConstruct
+    public void loadSnapshot() {
+        if (!StringUtils.hasText(snapshotFile)) {
+            return;
+        }
+        Path path = Path.of(snapshotFile);
+        if (!Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try {
+            if (!isTrusted(path) || !isTrusted(path.toAbsolutePath().getParent())) {
+                log.warn("本地权限快照 {} 不属于当前用户或可被其他用户写入，忽略快照，等待从 Redis 加载", path);
+                return;
+            }
+            PermissionSnapshot snapshot = objectMapper.readValue(path.toFile(), PermissionSnapshot.class);
+            cacheHandler.refreshAll(snapshot.rules());
+            loadedVersion = snapshot.version();
+            log.info("从本地快照预热权限缓存，version={}，共 {} 条 API 规则", snapshot.version(), snapshot.rules().size());
+        } catch (Exception e) {
+            log.warn("读取本地权限快照失败，等待从 Redis 加载: {}", e.getMessage());
+        }
+    }
 
     @Override
     public void run(ApplicationArguments args) {
@@ -46,27 +106,89 @@ public class PermissionCacheLoader implements ApplicationRunner {
     public void loadFromRedis() {
 
         try {
-            Map<Object, Object> entries = redisTemplate.opsForHash().entries(CACHE_KEY);
-
-            if (entries.isEmpty()) {
-                log.warn("Redis 中没有权限缓存数据，请确保 system 服务已启动并初始化缓存");
-                cacheHandler.refreshAll(Map.of());
+            // 先读版本再读哈希：读到的规则至少与版本号一样新
+            long version = readVersion();
+            if (version != UNKNOWN_VERSION && version == loadedVersion) {
+                log.debug("权限规则版本未变化，跳过重载，version={}", version);
                 return;
             }
 
             Map<String, Set<String>> apiToRoles = new HashMap<>();
-            entries.forEach((k, v) -> {
-                String apiPattern = k.toString();
-                String roleKeys = v.toString();
-                // 将逗号分隔的角色字符串转为 Set
-                Set<String> roles = Set.of(roleKeys.split(","));
-                apiToRoles.put(apiPattern, roles);
-            });
+            try (Cursor<Map.Entry<Object, Object>> cursor = redisTemplate.opsForHash()
+                    .scan(CACHE_KEY, ScanOptions.scanOptions().count(SCAN_COUNT).build())) {
+                while (cursor.hasNext()) {
+                    Map.Entry<Object, Object> entry = cursor.next();
+                    // 将逗号分隔的角色字符串转为 Set
+                    apiToRoles.put(entry.getKey().toString(), Set.of(entry.getValue().toString().split(",")));
+                }
+            }
+
+            if (apiToRoles.isEmpty() && version == UNKNOWN_VERSION) {
+                // system 服务尚未初始化缓存：保留当前规则（可能来自本地快照）
+                log.warn("Redis 中没有权限缓存数据，请确保 system 服务已启动并初始化缓存");
+                return;
+            }
 
             cacheHandler.refreshAll(apiToRoles);
-            log.info("权限缓存加载完成，共 {} 条 API 规则", apiToRoles.size());
+            loadedVersion = version;
+            log.info("权限缓存加载完成，version={}，共 {} 条 API 规则", version, apiToRoles.size());
+            writeSnapshot(new PermissionSnapshot(version, apiToRoles));
         } catch (Exception e) {
             log.error("从 Redis 加载权限缓存失败", e);
         }
     }
+
+    private long readVersion() {
+        String version = redisTemplate.opsForValue().get(VERSION_KEY);
+        return StringUtils.hasText(version) ? Long.parseLong(version) : UNKNOWN_VERSION;
+    }
+
+    /**
+     * 原子写入本地快照（先写临时文件再替换）
+     */
+    private void writeSnapshot(PermissionSnapshot snapshot) {
+        if (!StringUtils.hasText(snapshotFile)) {
+            return;
+        }
+        try {
+            Path path = Path.of(snapshotFile);
+            Path dir = path.toAbsolutePath().getParent();
+            if (POSIX) {
+                Files.createDirectories(dir,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(dir);
+            }
+            // 临时文件在 POSIX 上以 0600 创建，替换后快照只有当前用户可读写
+            Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入本地权限快照失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 文件或目录属于当前进程用户，且不可被组和其他用户写入
+     */
+    private static boolean isTrusted(Path path) throws IOException {
+        if (!System.getProperty("user.name").equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS).getName())) {
+            return false;
+        }
+        if (!POSIX) {
+            return true;
+        }
+        Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+        return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+                && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+    }
+
+    /**
+     * 本地权限快照
+     *
+     * @param version 规则版本
+     * @param rules   METHOD:/path -> 角色编码
+     */
+    record PermissionSnapshot(long version, Map<String, Set<String>> rules) {
+    }
 }
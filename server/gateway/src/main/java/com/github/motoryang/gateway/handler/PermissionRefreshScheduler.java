@@ -0,0 +1,90 @@
+package com.github.motoryang.gateway.handler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 权限刷新调度器
+ * <p>
+ * 合并刷新请求且不丢失：同一时间最多一次重载；重载期间到达的请求合并为一次尾随重载，
+ * 两次重载之间至少间隔 min-interval，间隔内到达的请求同样合并。
+ * <p>
+ * 指标：gateway.permission.sync.events（收到的刷新请求数）、
+ * gateway.permission.reload（重载耗时，计数即重载次数）
+ */
+@Slf4j
+@Component
+public class PermissionRefreshScheduler {
+
+    private final PermissionCacheLoader cacheLoader;
+    private final long minIntervalMillis;
+    private final Counter eventCounter;
+    private final Timer reloadTimer;
+
+    // 是否有未处理的刷新请求
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    // 是否有重载线程在运行
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 上一次重载结束时间，仅由重载线程读写
+    private long lastReloadEnd;
+
+    public PermissionRefreshScheduler(PermissionCacheLoader cacheLoader,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${gateway.permission.refresh.min-interval:500ms}") Duration minInterval) {
+        this.cacheLoader = cacheLoader;
+        this.minIntervalMillis = minInterval.toMillis();
+        this.eventCounter = meterRegistry.counter("gateway.permission.sync.events");
+        this.reloadTimer = Timer.builder("gateway.permission.reload")
+                .description("从 Redis 重载权限规则的耗时")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 请求一次刷新，立即返回
+     */
+    public void requestRefresh() {
+        eventCounter.increment();
+        pending.set(true);
+        tryStart();
+    }
+
+    private void tryStart() {
+        if (running.compareAndSet(false, true)) {
+            // 虚拟线程从Redis加载权限
+            Thread.startVirtualThread(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (pending.get()) {
+                long wait = lastReloadEnd + minIntervalMillis - System.currentTimeMillis();
+                if (wait > 0) {
+                    // 等待期间到达的请求并入本次重载
+                    Thread.sleep(wait);
+                }
+                pending.set(false);
+                log.info("[permission-refresh] 刷新权限缓存");
+                reloadTimer.record(cacheLoader::loadFromRedis);
+                lastReloadEnd = System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[permission-refresh] 刷新线程被中断");
+        } finally {
+            running.set(false);
+        }
+        // 退出循环与释放 running 之间到达的请求，由这里补上
+        if (pending.get()) {
+            tryStart();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.github.motoryang.gateway.handler;
+
+import com.github.motoryang.gateway.messaging.model.ApiPattern;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * API 权限前缀树
+ * <p>
+ * 将 ApiPattern 按请求方法分区，并按路径段编译为不可变的前缀树，
+ * 一次遍历即可得到所有匹配规则的角色并集（角色位图，见 {@link RoleRegistry}），耗时只与路径深度相关。
+ * <p>
+ * 节点类型：
+ * <ul>
+ *     <li>字面量段：/api/user</li>
+ *     <li>单段通配：* 与 {var}</li>
+ *     <li>多段通配：**</li>
+ *     <li>段内通配：user-*、*.js、{id:\d+}（交给 AntPathMatcher 做单段匹配）</li>
+ * </ul>
+ * 匹配语义与 {@link AntPathMatcher#match(String, String)} 保持一致，包括：
+ * 以 ** 结尾的规则忽略末尾斜杠，其他规则（包括 ** 在中间的规则）区分末尾斜杠；不含 ** 的 /a/* 可以匹配 /a/
+ * <p>
+ * 当规则中没有 ID 形态的字面量段，也没有段内通配时，ID 段（UUID、纯数字等）只可能被 * / {var} / ** 消费，
+ * 不同 ID 的匹配结果必然相同，此时 {@link #cacheKey(String)} 会把 ID 段折叠为占位符，作为匹配结果缓存的 key
+ */
+public final class PermissionTrie {
+
+    private static final String PATH_SEPARATOR = "/";
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String MULTI_WILDCARD = "**";
+    private static final String ID_PLACEHOLDER = "{id}";
+
+    public static final PermissionTrie EMPTY = new PermissionTrie(Map.of(), true);
+
+    /**
+     * 段内通配只在编译期与少量回溯时使用，AntPathMatcher 内部会缓存编译后的正则
+     */
+    private static final AntPathMatcher SEGMENT_MATCHER = new AntPathMatcher();
+
+    /**
+     * method(大写) -> 根节点
+     */
+    private final Map<String, Node> roots;
+
+    /**
+     * ID 段是否可以安全折叠
+     */
+    private final boolean idCollapsible;
+
+    private PermissionTrie(Map<String, Node> roots, boolean idCollapsible) {
+        this.roots = roots;
+        this.idCollapsible = idCollapsible;
+    }
+
+    /**
+     * 编译权限规则
+     */
+    public static PermissionTrie compile(Collection<ApiPattern> patterns, RoleRegistry roleRegistry) {
+        Map<String, NodeBuilder> builders = new HashMap<>();
+        boolean idCollapsible = true;
+        for (ApiPattern pattern : patterns) {
+            // 请求路径总是以 / 开头，AntPathMatcher 对不以 / 开头的规则永远返回 false
+            if (!pattern.path().startsWith(PATH_SEPARATOR)) {
+                continue;
+            }
+            NodeBuilder root = builders.computeIfAbsent(pattern.method().toUpperCase(Locale.ROOT), k -> new NodeBuilder());
+            idCollapsible &= root.insert(pattern);
+        }
+        Map<String, Node> roots = new HashMap<>(builders.size());
+        builders.forEach((method, builder) -> roots.put(method, builder.build(roleRegistry)));
+        return new PermissionTrie(Map.copyOf(roots), idCollapsible);
+    }
+
+    /**
+     * 匹配结果缓存的 key：可以安全折叠时把 ID 段替换为占位符，否则原样返回路径
+     * <p>
+     * 例如 /api/user/019bd2c4-7f3a-7c41-9a55-3b6e0d1f2a90/roles -> /api/user/{id}/roles
+     */
+    public String cacheKey(String path) {
+        if (!idCollapsible) {
+            return path;
+        }
+        return collapseIds(path);
+    }
+
+    /**
+     * 把路径中的 ID 段（纯数字、UUID、32 位十六进制）替换为 {id}，没有 ID 段时返回原路径
+     */
+    public static String collapseIds(String path) {
+        if (path == null) {
+            return null;
+        }
+        StringBuilder key = null;
+        int length = path.length();
+        int start = 0;
+        while (start <= length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (isIdSegment(path, start, end)) {
+                if (key == null) {
+                    key = new StringBuilder(length).append(path, 0, start);
+                }
+                key.append(ID_PLACEHOLDER);
+            } else if (key != null) {
+                key.append(path, start, end);
+            }
+            if (key != null && end < length) {
+                key.append('/');
+            }
+            start = end + 1;
+        }
+        return key == null ? path : key.toString();
+    }
+
+    /**
+     * 是否存在该请求方法的规则
+     */
+    public boolean supports(String method) {
+        return roots.containsKey(method.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * 查找所有匹配规则的角色并集
+     *
+     * @param method 请求方法
+     * @param path   请求路径
+     * @return 允许访问的角色位图，无匹配时返回空位图
+     */
+    public long[] match(String method, String path) {
+        Node root = roots.get(method.toUpperCase(Locale.ROOT));
+        if (root == null || path == null || !path.startsWith(PATH_SEPARATOR)) {
+            return RoleBits.EMPTY;
+        }
+
+        List<Node> active = new ArrayList<>();
+        List<Node> next = new ArrayList<>();
+        enter(root, active);
+
+        int length = path.length();
+        int start = 0;
+        while (start < length) {
+            // 跳过连续的分隔符（与 AntPathMatcher 忽略空段一致）
+            if (path.charAt(start) == '/') {
+                start++;
+                continue;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            String segment = path.substring(start, end);
+            for (Node node : active) {
+                node.step(segment, next);
+            }
+            if (next.isEmpty()) {
+                return RoleBits.EMPTY;
+            }
+            List<Node> swap = active;
+            active = next;
+            next = swap;
+            next.clear();
+            start = end;
+        }
+
+        boolean trailingSlash = path.endsWith(PATH_SEPARATOR);
+        long[] roles = null;
+        for (Node node : active) {
+            roles = RoleBits.or(roles, node.looseRoles);
+            if (trailingSlash) {
+                roles = RoleBits.or(roles, node.exactSlashRoles);
+                roles = RoleBits.or(roles, node.starSlashRoles);
+            } else {
+                roles = RoleBits.or(roles, node.exactRoles);
+            }
+        }
+        return roles == null ? RoleBits.EMPTY : roles;
+    }
+
+    /**
+     * 进入节点：** 可以匹配零个路径段，因此同时进入其 ** 子节点
+     */
+    private static void enter(Node node, List<Node> target) {
+        for (Node existing : target) {
+            if (existing == node) {
+                return;
+            }
+        }
+        target.add(node);
+        if (node.multi != null) {
+            enter(node.multi, target);
+        }
+    }
+
+    private static boolean isSingleWildcard(String segment) {
+        if (SINGLE_WILDCARD.equals(segment)) {
+            return true;
+        }
+        // {var}，不含自定义正则
+        return segment.length() > 2
+                && segment.charAt(0) == '{'
+                && segment.charAt(segment.length() - 1) == '}'
+                && segment.indexOf('{', 1) < 0
+                && segment.indexOf('}') == segment.length() - 1
+                && segment.indexOf(':') < 0;
+    }
+
+    /**
+     * ID 形态的路径段：纯数字、UUID（8-4-4-4-12）、32 位十六进制
+     */
+    static boolean isIdSegment(String path, int start, int end) {
+        int length = end - start;
+        if (length == 0) {
+            return false;
+        }
+        boolean digits = true;
+        boolean hex = true;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            int offset = i - start;
+            if (length == 36 && (offset == 8 || offset == 13 || offset == 18 || offset == 23)) {
+                if (c != '-') {
+                    return false;
+                }
+                digits = false;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                digits = false;
+                if ((c < 'a' || c > 'f') && (c < 'A' || c > 'F')) {
+                    hex = false;
+                }
+            }
+            if (!digits && !hex) {
+                return false;
+            }
+        }
+        return digits || length == 36 || length == 32;
+    }
+
+    private static boolean isGlob(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    /**
+     * 不可变的树节点
+     */
+    private static final class Node {
+
+        private final boolean multiWildcard;
+        private final Map<String, Node> literals;
+        private final Node single;
+        private final Node multi;
+        private final String[] globPatterns;
+        private final Node[] globNodes;
+
+        /**
+         * 不以 ** 结尾的规则在此结束，路径不以 / 结尾
+         */
+        private final long[] exactRoles;
+        /**
+         * 不以 ** 结尾的规则在此结束，路径以 / 结尾
+         */
+        private final long[] exactSlashRoles;
+        /**
+         * 不含 ** 且最后一段为 * 的规则，路径在此结束并以 / 结尾时同样匹配
+         */
+        private final long[] starSlashRoles;
+        /**
+         * 以 ** 结尾的规则在此结束，忽略末尾斜杠
+         */
+        private final long[] looseRoles;
+
+        private Node(NodeBuilder builder, RoleRegistry roleRegistry) {
+            this.multiWildcard = builder.multiWildcard;
+            Map<String, Node> literalNodes = new HashMap<>(builder.literals.size());
+            builder.literals.forEach((segment, child) -> literalNodes.put(segment, child.build(roleRegistry)));
+            this.literals = Map.copyOf(literalNodes);
+            this.single = builder.single == null ? null : builder.single.build(roleRegistry);
+            this.multi = builder.multi == null ? null : builder.multi.build(roleRegistry);
+            this.globPatterns = builder.globs.keySet().toArray(new String[0]);
+            this.globNodes = new Node[globPatterns.length];
+            for (int i = 0; i < globPatterns.length; i++) {
+                globNodes[i] = builder.globs.get(globPatterns[i]).build(roleRegistry);
+            }
+            this.exactRoles = roleRegistry.toBits(builder.exactRoles);
+            this.exactSlashRoles = roleRegistry.toBits(builder.exactSlashRoles);
+            this.starSlashRoles = roleRegistry.toBits(builder.starSlashRoles);
+            this.looseRoles = roleRegistry.toBits(builder.looseRoles);
+        }
+
+        /**
+         * 消费一个路径段，把可到达的节点加入 target
+         */
+        private void step(String segment, List<Node> target) {
+            if (multiWildcard) {
+                // ** 继续吞掉当前段
+                enter(this, target);
+            }
+            Node literal = literals.get(segment);
+            if (literal != null) {
+                enter(literal, target);
+            }
+            if (single != null) {
+                enter(single, target);
+            }
+            for (int i = 0; i < globPatterns.length; i++) {
+                if (SEGMENT_MATCHER.match(globPatterns[i], segment)) {
+                    enter(globNodes[i], target);
+                }
+            }
+        }
+    }
+
+    /**
+     * 编译期使用的可变节点
+     */
+    private static final class NodeBuilder {
+
+        private boolean multiWildcard;
+        private boolean literal;
+        private boolean glob;
+        private final Map<String, NodeBuilder> literals = new HashMap<>();
+        private NodeBuilder single;
+        private NodeBuilder multi;
+        private final Map<String, NodeBuilder> globs = new HashMap<>();
+
+        private final Set<String> exactRoles = new HashSet<>();
+        private final Set<String> exactSlashRoles = new HashSet<>();
+        private final Set<String> starSlashRoles = new HashSet<>();
+        private final Set<String> looseRoles = new HashSet<>();
+
+        private Node built;
+
+        /**
+         * 插入规则
+         *
+         * @return 该规则是否允许折叠 ID 段（不含 ID 形态的字面量段，也不含段内通配）
+         */
+        private boolean insert(ApiPattern pattern) {
+            String path = pattern.path();
+            List<String> segments = new ArrayList<>();
+            for (String segment : path.split(PATH_SEPARATOR)) {
+                if (!segment.isEmpty()) {
+                    segments.add(segment);
+                }
+            }
+            boolean hasMulti = segments.contains(MULTI_WILDCARD);
+
+            boolean idCollapsible = true;
+            NodeBuilder parent = null;
+            NodeBuilder current = this;
+            for (String segment : segments) {
+                parent = current;
+                current = current.child(segment);
+                if (current.glob || (current.literal && isIdSegment(segment, 0, segment.length()))) {
+                    idCollapsible = false;
+                }
+            }
+
+            String last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (MULTI_WILDCARD.equals(last)) {
+                current.looseRoles.addAll(pattern.roles());
+                return idCollapsible;
+            }
+            // AntPathMatcher 在最后一段与路径最后一段匹配时比较末尾斜杠，/a/**/b 同样区分
+            if (path.endsWith(PATH_SEPARATOR)) {
+                current.exactSlashRoles.addAll(pattern.roles());
+            } else {
+                current.exactRoles.addAll(pattern.roles());
+            }
+            // /a/* 匹配 /a/ 只发生在 ** 之前的逐段匹配中，含 ** 的规则不适用
+            if (!hasMulti && parent != null && SINGLE_WILDCARD.equals(last)) {
+                parent.starSlashRoles.addAll(pattern.roles());
+            }
+            return idCollapsible;
+        }
+
+        private NodeBuilder child(String segment) {
+            if (MULTI_WILDCARD.equals(segment)) {
+                if (multi == null) {
+                    multi = new NodeBuilder();
+                    multi.multiWildcard = true;
+                }
+                return multi;
+            }
+            if (isSingleWildcard(segment)) {
+                if (single == null) {
+                    single = new NodeBuilder();
+                }
+                return single;
+            }
+            if (isGlob(segment)) {
+                return globs.computeIfAbsent(segment, k -> {
+                    NodeBuilder node = new NodeBuilder();
+                    node.glob = true;
+                    return node;
+                });
+            }
+            return literals.computeIfAbsent(segment, k -> {
+                NodeBuilder node = new NodeBuilder();
+                node.literal = true;
+                return node;
+            });
+        }
+
+        private Node build(RoleRegistry roleRegistry) {
+            if (built == null) {
+                built = new Node(this, roleRegistry);
+            }
+            return built;
+        }
+    }
+}
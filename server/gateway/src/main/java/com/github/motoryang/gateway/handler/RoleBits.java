@@ -0,0 +1,72 @@
+package com.github.motoryang.gateway.handler;
+
+import java.util.Arrays;
+
+/**
+ * 角色位图运算
+ * <p>
+ * 第 n 号角色对应 bits[n / 64] 的第 n % 64 位
+ */
+public final class RoleBits {
+
+    public static final long[] EMPTY = new long[0];
+
+    private RoleBits() {
+    }
+
+    /**
+     * 置位，容量不足时返回扩容后的新数组
+     */
+    public static long[] set(long[] bits, int id) {
+        int word = id >>> 6;
+        long[] target = word < bits.length ? bits : Arrays.copyOf(bits, word + 1);
+        target[word] |= 1L << id;
+        return target;
+    }
+
+    /**
+     * 是否包含指定角色
+     */
+    public static boolean contains(long[] bits, int id) {
+        int word = id >>> 6;
+        return word < bits.length && (bits[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * 两个角色集合是否有交集
+     */
+    public static boolean intersects(long[] a, long[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 并集，target 为 null 或容量不足时返回新数组
+     */
+    public static long[] or(long[] target, long[] source) {
+        if (source.length == 0) {
+            return target;
+        }
+        if (target == null || target.length < source.length) {
+            target = target == null ? new long[source.length] : Arrays.copyOf(target, source.length);
+        }
+        for (int i = 0; i < source.length; i++) {
+            target[i] |= source[i];
+        }
+        return target;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
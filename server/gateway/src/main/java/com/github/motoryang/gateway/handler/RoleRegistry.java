@@ -0,0 +1,174 @@
+package com.github.motoryang.gateway.handler;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * 角色编码注册表
+ * <p>
+ * 在权限刷新时把角色编码驻留为从 0 开始的整数 ID，请求期间以 long[] 位图表示角色集合。
+ * ID 只增不减，刷新前解码出的位图在刷新后仍然有效。
+ * 查找直接在原始字符串区间上进行，解码请求头时不产生子串。
+ */
+@Component
+public class RoleRegistry {
+
+    public static final String ADMIN = "ADMIN";
+
+    /**
+     * ADMIN 固定为 0 号角色
+     */
+    public static final int ADMIN_ID = 0;
+
+    private static final long[] NONE = new long[0];
+
+    private volatile Table table = Table.EMPTY;
+
+    public RoleRegistry() {
+        this(true);
+    }
+
+    private RoleRegistry(boolean pinAdmin) {
+        if (pinAdmin) {
+            intern(ADMIN);
+        }
+    }
+
+    /**
+     * 不预留 ADMIN 的注册表，编码按驻留顺序从 0 开始编号（用于路径分类、限流规则等非角色编码）
+     */
+    public static RoleRegistry unpinned() {
+        return new RoleRegistry(false);
+    }
+
+    /**
+     * 驻留角色编码，返回其 ID
+     */
+    public synchronized int intern(String role) {
+        Table current = table;
+        int id = current.indexOf(role, 0, role.length());
+        if (id >= 0) {
+            return id;
+        }
+        this.table = current.with(role);
+        return current.size;
+    }
+
+    /**
+     * 将角色编码集合转换为位图（未驻留的角色会被驻留）
+     */
+    public long[] toBits(Iterable<String> roles) {
+        long[] bits = NONE;
+        for (String role : roles) {
+            bits = RoleBits.set(bits, intern(role));
+        }
+        return bits;
+    }
+
+    /**
+     * 解码逗号分隔的角色请求头，未知角色直接忽略（不可能命中任何规则）
+     */
+    public long[] decode(String rolesHeader) {
+        if (rolesHeader == null || rolesHeader.isEmpty()) {
+            return NONE;
+        }
+        Table current = table;
+        long[] bits = new long[current.words()];
+        int length = rolesHeader.length();
+        int start = 0;
+        while (start <= length) {
+            int end = rolesHeader.indexOf(',', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                int id = current.indexOf(rolesHeader, start, end);
+                if (id >= 0) {
+                    bits[id >>> 6] |= 1L << id;
+                }
+            }
+            start = end + 1;
+        }
+        return bits;
+    }
+
+    /**
+     * 角色 ID 对应的编码
+     */
+    public String nameOf(int id) {
+        return table.names[id];
+    }
+
+    /**
+     * 已驻留的角色数量
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * 不可变开放寻址表，写时复制
+     */
+    private static final class Table {
+
+        private static final Table EMPTY = new Table(new String[0], 0);
+
+        private final String[] names;
+        private final int size;
+        private final String[] slots;
+        private final int[] ids;
+        private final int mask;
+
+        private Table(String[] names, int size) {
+            this.names = names;
+            this.size = size;
+            int capacity = Integer.highestOneBit(Math.max(4, size * 2 - 1)) << 1;
+            this.slots = new String[capacity];
+            this.ids = new int[capacity];
+            this.mask = capacity - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = hash(names[id], 0, names[id].length()) & mask;
+                while (slots[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = names[id];
+                ids[slot] = id;
+            }
+        }
+
+        private Table with(String role) {
+            String[] grown = Arrays.copyOf(names, size + 1);
+            grown[size] = role;
+            return new Table(grown, size + 1);
+        }
+
+        private int words() {
+            return (size + 63) >>> 6;
+        }
+
+        private int indexOf(String source, int from, int to) {
+            int length = to - from;
+            int slot = hash(source, from, to) & mask;
+            String candidate;
+            while ((candidate = slots[slot]) != null) {
+                if (candidate.length() == length && candidate.regionMatches(0, source, from, length)) {
+                    return ids[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * 与 String#hashCode 相同的算法，作用于字符串区间
+         */
+        private static int hash(String source, int from, int to) {
+            int h = 0;
+            for (int i = from; i < to; i++) {
+                h = 31 * h + source.charAt(i);
+            }
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.motoryang.gateway.hedge;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求令牌预算
+ * <p>
+ * 每个普通请求存入 ratio 个令牌（上限 cap），每次对冲消耗 1 个，
+ * 对冲量因此不会超过普通请求量的 ratio 倍；下游整体故障时预算耗尽，不会放大负载
+ */
+public final class HedgeBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositMilli;
+    private final long capMilli;
+
+    // 以千分之一令牌为单位
+    private final AtomicLong balanceMilli = new AtomicLong();
+
+    public HedgeBudget(double ratio, double cap) {
+        this.depositMilli = Math.round(ratio * SCALE);
+        this.capMilli = Math.round(cap * SCALE);
+    }
+
+    public void deposit() {
+        balanceMilli.accumulateAndGet(depositMilli, (current, delta) -> Math.min(capMilli, current + delta));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balanceMilli.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balanceMilli.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
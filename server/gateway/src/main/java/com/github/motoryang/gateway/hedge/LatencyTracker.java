@@ -0,0 +1,58 @@
+package com.github.motoryang.gateway.hedge;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 最近主请求耗时的滑动样本，按需计算分位数
+ * <p>
+ * 环形数组保存最近 1024 个样本，分位数每秒最多重新计算一次，请求路径上只读取缓存值
+ */
+public final class LatencyTracker {
+
+    private static final int SIZE = 1024;
+    private static final int MIN_SAMPLES = 100;
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double percentile;
+    private final long[] samples = new long[SIZE];
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong nextRefreshNanos = new AtomicLong();
+
+    // 样本不足时为 -1
+    private volatile long cachedNanos = -1;
+
+    public LatencyTracker(double percentile) {
+        this.percentile = percentile;
+        this.nextRefreshNanos.set(System.nanoTime());
+    }
+
+    public void record(long nanos) {
+        long index = count.getAndIncrement();
+        samples[(int) (index & (SIZE - 1))] = nanos;
+    }
+
+    /**
+     * 当前分位数（纳秒），样本不足时返回 -1
+     */
+    public long percentileNanos() {
+        long now = System.nanoTime();
+        long next = nextRefreshNanos.get();
+        if (now - next >= 0 && nextRefreshNanos.compareAndSet(next, now + REFRESH_NANOS)) {
+            cachedNanos = compute();
+        }
+        return cachedNanos;
+    }
+
+    private long compute() {
+        int n = (int) Math.min(count.get(), SIZE);
+        if (n < MIN_SAMPLES) {
+            return -1;
+        }
+        long[] copy = Arrays.copyOf(samples, n);
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * n) - 1;
+        return copy[Math.max(0, Math.min(n - 1, index))];
+    }
+}
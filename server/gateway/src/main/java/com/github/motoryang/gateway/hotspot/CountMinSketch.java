@@ -0,0 +1,63 @@
+package com.github.motoryang.gateway.hotspot;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch：固定内存的频次估计，估计值只会偏大不会偏小
+ * <p>
+ * depth 行 × width 列计数器，每行用 h1 + i * h2 派生一个下标，估计值取各行最小值；
+ * 计数器为原子数组，多个事件循环线程并发累加无需加锁
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width 每行计数器数量，向上取整为 2 的幂
+     * @param depth 行数（哈希函数数量）
+     */
+    CountMinSketch(int width, int depth) {
+        int columns = Integer.highestOneBit(Math.max(16, width));
+        if (columns < width) {
+            columns <<= 1;
+        }
+        this.depth = Math.max(1, depth);
+        this.mask = columns - 1;
+        this.counters = new AtomicLongArray(columns * this.depth);
+    }
+
+    /**
+     * 计数加一并返回新的估计值
+     */
+    long add(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        int width = mask + 1;
+        for (int i = 0; i < depth; i++) {
+            int index = i * width + ((h1 + i * h2) & mask);
+            estimate = Math.min(estimate, counters.incrementAndGet(index));
+        }
+        return estimate;
+    }
+
+    void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * Murmur3 fmix32
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.motoryang.gateway.hotspot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 流式 Top-K：Count-Min Sketch 估计频次，候选集保留估计值最大的 K 个 key
+ * <p>
+ * 已在候选集中的 key 只更新计数；其他 key 的估计值超过候选集最小值时才加锁替换最小项。
+ * K 通常只有几十，替换时线性扫描候选集，比维护可更新优先级的堆更简单也更快。
+ * 计数只增不减，threshold 只会偏小，偏小时只是多进入一次锁，不影响正确性
+ */
+final class HeavyHitters {
+
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates;
+    private final Object lock = new Object();
+
+    // 候选集已满时的最小计数，未满时为 0
+    private volatile long threshold;
+
+    HeavyHitters(int capacity, int width, int depth) {
+        this.capacity = capacity;
+        this.sketch = new CountMinSketch(width, depth);
+        this.candidates = new ConcurrentHashMap<>(capacity * 2);
+    }
+
+    void offer(String key) {
+        long estimate = sketch.add(key);
+        if (candidates.computeIfPresent(key, (k, count) -> Math.max(count, estimate)) != null) {
+            return;
+        }
+        if (estimate <= threshold) {
+            return;
+        }
+        synchronized (lock) {
+            if (candidates.containsKey(key)) {
+                candidates.merge(key, estimate, Math::max);
+                return;
+            }
+            if (candidates.size() < capacity) {
+                candidates.put(key, estimate);
+                if (candidates.size() == capacity) {
+                    threshold = minCount();
+                }
+                return;
+            }
+            String minKey = null;
+            long minCount = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+                if (entry.getValue() < minCount) {
+                    minKey = entry.getKey();
+                    minCount = entry.getValue();
+                }
+            }
+            if (minKey != null && estimate > minCount) {
+                candidates.remove(minKey);
+                candidates.put(key, estimate);
+            }
+            threshold = minCount();
+        }
+    }
+
+    private long minCount() {
+        long min = Long.MAX_VALUE;
+        for (Long count : candidates.values()) {
+            min = Math.min(min, count);
+        }
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    /**
+     * 按计数降序返回当前 Top-K
+     */
+    List<HotKey> snapshot() {
+        List<HotKey> result = new ArrayList<>(candidates.size());
+        candidates.forEach((key, count) -> result.add(new HotKey(key, count)));
+        result.sort(Comparator.comparingLong(HotKey::count).reversed());
+        return result;
+    }
+
+    void reset() {
+        synchronized (lock) {
+            sketch.clear();
+            candidates.clear();
+            threshold = 0;
+        }
+    }
+}
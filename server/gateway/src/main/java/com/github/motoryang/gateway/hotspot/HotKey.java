@@ -0,0 +1,10 @@
+package com.github.motoryang.gateway.hotspot;
+
+/**
+ * 热点条目
+ *
+ * @param key   用户ID、API（METHOD /path）或二者组合
+ * @param count 窗口内的请求数（估计值）
+ */
+public record HotKey(String key, long count) {
+}
@@ -0,0 +1,30 @@
+package com.github.motoryang.gateway.hotspot;
+
+/**
+ * 热点统计维度
+ */
+public enum HotspotDimension {
+
+    /**
+     * 用户ID
+     */
+    USER("user"),
+    /**
+     * API：请求方法 + 折叠 ID 段后的路径
+     */
+    API("api"),
+    /**
+     * 用户 + API
+     */
+    USER_API("user_api");
+
+    private final String tag;
+
+    HotspotDimension(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
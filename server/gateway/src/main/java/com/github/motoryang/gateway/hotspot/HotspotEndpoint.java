@@ -0,0 +1,39 @@
+package com.github.motoryang.gateway.hotspot;
+
+import jakarta.annotation.Resource;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热点流量端点：/actuator/hotspots
+ * <p>
+ * current 为本节点进行中的窗口，last 为本节点上一分钟，cluster 为所有网关节点合并后的上一分钟
+ */
+@Component
+@Endpoint(id = "hotspots")
+public class HotspotEndpoint {
+
+    @Resource
+    private HotspotTracker hotspotTracker;
+
+    @ReadOperation
+    public Map<String, Object> hotspots() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hotspotTracker.isEnabled());
+        if (!hotspotTracker.isEnabled()) {
+            return result;
+        }
+        result.put("current", hotspotTracker.localCurrent());
+        result.put("last", hotspotTracker.localLast());
+        try {
+            result.put("cluster", hotspotTracker.cluster());
+        } catch (Exception e) {
+            result.put("cluster", "unavailable: " + e.getMessage());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.motoryang.gateway.hotspot;
+
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.handler.PermissionTrie;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关热点流量统计
+ * <p>
+ * 按用户、API、用户 + API 三个维度各维护一个 {@link HeavyHitters}，内存固定，不记录每个请求。
+ * 窗口按整分钟轮换：结束的窗口在本地保留一份 Top-K，并通过 ZINCRBY 累加到
+ * uni:hotspot:{dimension}:{minute}，多个网关节点的结果在 Redis 中合并。
+ * 各节点只上报自己的 Top-K，合并结果是近似值，但持续的热点一定会出现在其中
+ */
+@Slf4j
+@Component
+public class HotspotTracker {
+
+    private static final long WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final HotspotDimension[] DIMENSIONS = HotspotDimension.values();
+
+    @Value("${gateway.hotspot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${gateway.hotspot.top-k:20}")
+    private int topK;
+
+    @Value("${gateway.hotspot.sketch-width:4096}")
+    private int sketchWidth;
+
+    @Value("${gateway.hotspot.sketch-depth:4}")
+    private int sketchDepth;
+
+    // Redis 中合并结果的保留时间
+    @Value("${gateway.hotspot.retention:1h}")
+    private Duration retention;
+
+    @Resource
+    private StringRedisTemplate redisTemplate;
+
+    private final ScheduledExecutorService rotateExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("gateway-hotspot-rotate").daemon().factory());
+
+    // 当前窗口与备用窗口交替使用，轮换时不分配新的 sketch
+    private volatile Window current;
+    private Window spare;
+
+    private volatile WindowSnapshot lastWindow;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        long minute = System.currentTimeMillis() / WINDOW_MILLIS;
+        this.current = new Window(minute);
+        this.spare = new Window(minute);
+        long delay = (minute + 1) * WINDOW_MILLIS - System.currentTimeMillis();
+        rotateExecutor.scheduleAtFixedRate(this::rotateSafely, delay, WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rotateExecutor.shutdownNow();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 计入一次请求
+     *
+     * @param userId 已认证用户ID，匿名请求为 null
+     */
+    public void record(String userId, String method, String path) {
+        Window window = current;
+        if (window == null) {
+            return;
+        }
+        String api = method + " " + PermissionTrie.collapseIds(path);
+        window.hitters(HotspotDimension.API).offer(api);
+        if (userId != null) {
+            window.hitters(HotspotDimension.USER).offer(userId);
+            window.hitters(HotspotDimension.USER_API).offer(userId + " " + api);
+        }
+    }
+
+    private void rotateSafely() {
+        try {
+            rotate();
+        } catch (Exception e) {
+            log.warn("Hotspot window rotation failed: {}", e.getMessage());
+        }
+    }
+
+    private void rotate() {
+        Window ended = current;
+        // 先切换再读取，滞后写入结束窗口的少量请求在它下次被重置时丢弃；
+        // 定时任务可能略早触发，窗口编号至少递增 1，避免与结束的窗口重名
+        Window next = spare;
+        next.reset(Math.max(ended.minute + 1, System.currentTimeMillis() / WINDOW_MILLIS));
+        current = next;
+        spare = ended;
+
+        WindowSnapshot snapshot = ended.snapshot();
+        lastWindow = snapshot;
+        publish(snapshot);
+    }
+
+    private void publish(WindowSnapshot snapshot) {
+        for (HotspotDimension dimension : DIMENSIONS) {
+            List<HotKey> keys = snapshot.dimensions().get(dimension);
+            if (keys.isEmpty()) {
+                continue;
+            }
+            String redisKey = redisKey(dimension, snapshot.minute());
+            for (HotKey hotKey : keys) {
+                redisTemplate.opsForZSet().incrementScore(redisKey, hotKey.key(), hotKey.count());
+            }
+            redisTemplate.expire(redisKey, retention);
+        }
+    }
+
+    private static String redisKey(HotspotDimension dimension, long minute) {
+        return Constants.REDIS_HOTSPOT_KEY + dimension.tag() + ":" + minute;
+    }
+
+    /**
+     * 本节点当前（未结束）窗口
+     */
+    public WindowSnapshot localCurrent() {
+        Window window = current;
+        return window == null ? null : window.snapshot();
+    }
+
+    /**
+     * 本节点最近一个结束的窗口
+     */
+    public WindowSnapshot localLast() {
+        return lastWindow;
+    }
+
+    /**
+     * 所有网关节点合并后的最近一个结束窗口
+     */
+    public WindowSnapshot cluster() {
+        long minute = System.currentTimeMillis() / WINDOW_MILLIS - 1;
+        Map<HotspotDimension, List<HotKey>> dimensions = new EnumMap<>(HotspotDimension.class);
+        for (HotspotDimension dimension : DIMENSIONS) {
+            Set<ZSetOperations.TypedTuple<String>> tuples = redisTemplate.opsForZSet()
+                    .reverseRangeWithScores(redisKey(dimension, minute), 0, topK - 1);
+            List<HotKey> keys = new ArrayList<>();
+            if (tuples != null) {
+                for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                    keys.add(new HotKey(tuple.getValue(), tuple.getScore() == null ? 0 : tuple.getScore().longValue()));
+                }
+            }
+            dimensions.put(dimension, keys);
+        }
+        return new WindowSnapshot(minute * WINDOW_MILLIS, Collections.unmodifiableMap(dimensions));
+    }
+
+    /**
+     * 一分钟窗口
+     */
+    private final class Window {
+
+        private final HeavyHitters[] hitters = new HeavyHitters[DIMENSIONS.length];
+        private volatile long minute;
+
+        Window(long minute) {
+            this.minute = minute;
+            for (int i = 0; i < hitters.length; i++) {
+                hitters[i] = new HeavyHitters(topK, sketchWidth, sketchDepth);
+            }
+        }
+
+        HeavyHitters hitters(HotspotDimension dimension) {
+            return hitters[dimension.ordinal()];
+        }
+
+        void reset(long minute) {
+            for (HeavyHitters hitter : hitters) {
+                hitter.reset();
+            }
+            this.minute = minute;
+        }
+
+        WindowSnapshot snapshot() {
+            Map<HotspotDimension, List<HotKey>> dimensions = new EnumMap<>(HotspotDimension.class);
+            for (HotspotDimension dimension : DIMENSIONS) {
+                dimensions.put(dimension, hitters(dimension).snapshot());
+            }
+            return new WindowSnapshot(minute * WINDOW_MILLIS, Collections.unmodifiableMap(dimensions));
+        }
+    }
+
+    /**
+     * 窗口统计结果
+     *
+     * @param startMillis 窗口开始时间（毫秒时间戳）
+     * @param dimensions  各维度的 Top-K，按计数降序
+     */
+    public record WindowSnapshot(long startMillis, Map<HotspotDimension, List<HotKey>> dimensions) {
+
+        long minute() {
+            return startMillis / WINDOW_MILLIS;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.motoryang.gateway.limiter;
+
+import com.github.motoryang.gateway.properties.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自适应并发上限（梯度算法）
+ * <p>
+ * 维护长期 RTT 均值，每个样本按 gradient = clamp(tolerance × 长期RTT / 本次RTT, 0.5, 1) 缩放上限，
+ * 再加上 √limit 的排队余量：下游变慢时上限按比例收缩，恢复后逐步放大。
+ * 进行中请求不足上限一半时不放大（流量本身不足，RTT 不能说明容量）；
+ * 下游返回过载（502/503/504 或异常）时直接乘性收缩
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    /**
+     * 长期 RTT 的 EWMA 系数（约 600 个样本）
+     */
+    private static final double LONG_RTT_ALPHA = 2d / 601;
+
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final double tolerance;
+    private final double smoothing;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // 以下字段由 this 保护
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        this.tolerance = properties.tolerance();
+        this.smoothing = properties.smoothing();
+        this.minLimit = properties.minLimit();
+        this.maxLimit = properties.maxLimit();
+        this.estimatedLimit = properties.initialLimit();
+        this.limit = properties.initialLimit();
+    }
+
+    /**
+     * 尝试占用一个并发名额，成功时返回占用后的进行中请求数，失败返回 -1
+     */
+    public int tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > limit) {
+            inFlight.decrementAndGet();
+            return -1;
+        }
+        return current;
+    }
+
+    /**
+     * 释放名额但不记录样本（请求被取消）
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 释放名额并根据本次 RTT 调整上限
+     *
+     * @param inFlightAtStart 请求开始时的进行中请求数
+     * @param dropped         下游是否过载
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        update(Math.max(rttNanos, 1), inFlightAtStart, dropped);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            setLimit(estimatedLimit * DROP_BACKOFF);
+            return;
+        }
+        longRttNanos = longRttNanos == 0 ? rttNanos : longRttNanos * (1 - LONG_RTT_ALPHA) + rttNanos * LONG_RTT_ALPHA;
+        // 负载回落后长期均值偏高，加速收敛，避免梯度长期停在 1
+        if (longRttNanos / rttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        setLimit(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private void setLimit(double newLimit) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
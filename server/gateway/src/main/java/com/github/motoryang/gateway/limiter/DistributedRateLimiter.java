@@ -0,0 +1,351 @@
+package com.github.motoryang.gateway.limiter;
+
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.handler.PermissionTrie;
+import com.github.motoryang.gateway.handler.RoleBits;
+import com.github.motoryang.gateway.handler.RoleRegistry;
+import com.github.motoryang.gateway.messaging.model.ApiPattern;
+import com.github.motoryang.gateway.properties.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式令牌桶限流器
+ * <p>
+ * 令牌桶状态保存在 Redis（uni:ratelimit:user:{userId}、uni:ratelimit:api:{METHOD}:{pattern}），
+ * 补充与扣减由 Lua 脚本原子完成，补充时间取 Redis 服务器时钟，不受各节点时钟偏差影响。
+ * <p>
+ * 请求路径上不访问 Redis：每个节点在本地视图上判定并累计消耗，
+ * 由同步线程每隔 sync-interval 把所有桶的累计消耗通过一次脚本调用批量扣减，并取回全局剩余令牌。
+ * 代价是同步间隔内各节点可能共同超发，超发部分在 Redis 中记为欠额（最多一个桶容量），由后续补充抵扣。
+ * 两次同步之间本地桶按限额速率自行补充，Redis 不可用时各节点按本地速率放行（fail-open），消耗保留到下次同步上报。
+ * <p>
+ * 指标：gateway.ratelimit.rejected（标签 scope=user|api）、gateway.ratelimit.sync、gateway.ratelimit.buckets
+ */
+@Slf4j
+@Component
+public class DistributedRateLimiter {
+
+    private static final String PROPERTY_PREFIX = "gateway.rate-limit";
+    private static final String ANY_METHOD = "ANY";
+    private static final String WILDCARD_METHOD = "*";
+
+    // 单次脚本调用最多携带的桶数量，避免长时间占用 Redis
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    // 超过该时间未访问且没有待上报消耗的本地桶被移除
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * KEYS[i]：桶 key；ARGV[3i-2..3i]：每秒补充令牌数、桶容量、本次上报的消耗
+     * 返回每个桶扣减后的剩余令牌（可能为负，表示欠额）
+     */
+    private static final RedisScript<List> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local result = {}
+            for i = 1, #KEYS do
+                local rate = tonumber(ARGV[i * 3 - 2])
+                local burst = tonumber(ARGV[i * 3 - 1])
+                local consumed = tonumber(ARGV[i * 3])
+                local state = redis.call('HMGET', KEYS[i], 'tokens', 'ts')
+                local tokens = tonumber(state[1])
+                local ts = tonumber(state[2])
+                if tokens == nil or ts == nil then
+                    tokens = burst
+                    ts = now
+                end
+                tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000)
+                tokens = math.max(-burst, tokens - consumed)
+                redis.call('HSET', KEYS[i], 'tokens', tostring(tokens), 'ts', tostring(now))
+                redis.call('PEXPIRE', KEYS[i], math.ceil(burst / rate * 1000) + 1000)
+                result[i] = tostring(tokens)
+            end
+            return result
+            """, List.class);
+
+    @Resource
+    private Environment environment;
+    @Resource
+    private StringRedisTemplate redisTemplate;
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService syncExecutor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("gateway-rate-limit-sync").daemon().factory());
+
+    private volatile Rules rules = Rules.DISABLED;
+
+    private Counter userRejected;
+    private Counter apiRejected;
+    private Timer syncTimer;
+
+    @PostConstruct
+    public void init() {
+        this.userRejected = meterRegistry.counter("gateway.ratelimit.rejected", "scope", "user");
+        this.apiRejected = meterRegistry.counter("gateway.ratelimit.rejected", "scope", "api");
+        this.syncTimer = meterRegistry.timer("gateway.ratelimit.sync");
+        Gauge.builder("gateway.ratelimit.buckets", buckets, Map::size).register(meterRegistry);
+        rebuild();
+        scheduleSync();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        syncExecutor.shutdownNow();
+    }
+
+    /**
+     * 限流配置刷新（Nacos 动态配置）时重新编译；限额可能变化，本地桶全部重建
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PROPERTY_PREFIX))) {
+            rebuild();
+            buckets.clear();
+        }
+    }
+
+    private void rebuild() {
+        RateLimitProperties properties = Binder.get(environment)
+                .bindOrCreate(PROPERTY_PREFIX, RateLimitProperties.class);
+        if (!properties.enabled()) {
+            this.rules = new Rules(false, properties.syncInterval(), null, List.of(), PermissionTrie.EMPTY);
+            log.info("Gateway rate limit disabled");
+            return;
+        }
+
+        // 规则序号按配置顺序驻留为 0..n-1，匹配结果按序号取第一个
+        RoleRegistry indexes = RoleRegistry.unpinned();
+        List<ApiRule> apiRules = new ArrayList<>();
+        List<ApiPattern> patterns = new ArrayList<>();
+        for (RateLimitProperties.ApiLimit api : properties.apis()) {
+            if (api.pattern() == null || api.pattern().isBlank() || !isValid(api.rate(), api.burst())) {
+                log.warn("Ignored invalid rate limit rule: {}", api);
+                continue;
+            }
+            String method = api.method() == null ? WILDCARD_METHOD : api.method().trim().toUpperCase();
+            String pattern = api.pattern().trim();
+            String id = String.valueOf(apiRules.size());
+            indexes.intern(id);
+            patterns.add(new ApiPattern(ANY_METHOD, pattern, Set.of(id)));
+            apiRules.add(new ApiRule(method,
+                    Constants.REDIS_RATE_LIMIT_KEY + "api:" + method + ":" + pattern,
+                    new RateLimitProperties.Limit(api.rate(), api.burst())));
+        }
+
+        RateLimitProperties.Limit user = properties.user();
+        if (!isValid(user.rate(), user.burst())) {
+            log.warn("Ignored invalid user rate limit: {}", user);
+            user = null;
+        }
+        this.rules = new Rules(true, properties.syncInterval(), user, List.copyOf(apiRules),
+                PermissionTrie.compile(patterns, indexes));
+        log.info("Gateway rate limit compiled, user={}, apiSize={}", user, apiRules.size());
+    }
+
+    private static boolean isValid(double rate, long burst) {
+        return rate > 0 && burst > 0;
+    }
+
+    /**
+     * 判定并计入一次请求
+     *
+     * @param userId 已认证用户ID，匿名请求为 null
+     * @return 通过返回 null，否则返回被触发的限额
+     */
+    public RateLimitProperties.Limit tryAcquire(String userId, String method, String path) {
+        Rules current = rules;
+        if (!current.enabled()) {
+            return null;
+        }
+        long now = System.nanoTime();
+
+        LocalBucket userBucket = null;
+        if (userId != null && current.user() != null) {
+            userBucket = consume(Constants.REDIS_RATE_LIMIT_KEY + "user:" + userId, current.user(), now);
+            if (userBucket == null) {
+                userRejected.increment();
+                return current.user();
+            }
+        }
+
+        ApiRule apiRule = current.match(method, path);
+        if (apiRule != null) {
+            if (consume(apiRule.redisKey(), apiRule.limit(), now) == null) {
+                // 未被放行的请求不占用用户额度
+                if (userBucket != null) {
+                    userBucket.refund();
+                }
+                apiRejected.increment();
+                return apiRule.limit();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在当前有效的本地桶上消耗一个令牌，返回该桶；被拒绝时返回 null。
+     * 桶在消耗期间被同步任务移除时撤销本次消耗，换用新桶重试
+     */
+    private LocalBucket consume(String redisKey, RateLimitProperties.Limit limit, long now) {
+        while (true) {
+            LocalBucket bucket = bucket(redisKey, limit, now);
+            if (!bucket.tryConsume(now)) {
+                return null;
+            }
+            if (!bucket.isRetired()) {
+                return bucket;
+            }
+            bucket.refund();
+            buckets.remove(redisKey, bucket);
+        }
+    }
+
+    private LocalBucket bucket(String redisKey, RateLimitProperties.Limit limit, long now) {
+        LocalBucket bucket = buckets.get(redisKey);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(redisKey, key -> new LocalBucket(key, limit, now));
+        }
+        return bucket;
+    }
+
+    private void scheduleSync() {
+        // 每次按最新配置的间隔重新调度，间隔变更无需重启
+        long delay = Math.max(1, rules.syncInterval().toMillis());
+        syncExecutor.schedule(() -> {
+            try {
+                sync();
+            } catch (Exception e) {
+                log.warn("Rate limit sync failed: {}", e.getMessage());
+            } finally {
+                scheduleSync();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 上报本地消耗并取回全局剩余令牌
+     */
+    private void sync() {
+        if (!rules.enabled() || buckets.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<LocalBucket> batch = new ArrayList<>(Math.min(buckets.size(), SYNC_BATCH_SIZE));
+        for (LocalBucket bucket : buckets.values()) {
+            boolean sync = bucket.needsSync();
+            if (!sync && bucket.retire(now, IDLE_NANOS)) {
+                buckets.remove(bucket.redisKey, bucket);
+                // 标记之前已计入、标记时尚未看到的消耗，在移除后仍需上报
+                sync = bucket.needsSync();
+            }
+            if (sync) {
+                batch.add(bucket);
+                if (batch.size() == SYNC_BATCH_SIZE) {
+                    syncBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            syncBatch(batch);
+        }
+    }
+
+    private void syncBatch(List<LocalBucket> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        Object[] args = new Object[batch.size() * 3];
+        long[] consumed = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            LocalBucket bucket = batch.get(i);
+            consumed[i] = bucket.drainPending();
+            keys.add(bucket.redisKey);
+            args[i * 3] = String.valueOf(bucket.limit.rate());
+            args[i * 3 + 1] = String.valueOf(bucket.limit.burst());
+            args[i * 3 + 2] = String.valueOf(consumed[i]);
+        }
+
+        long start = System.nanoTime();
+        List<?> remaining;
+        try {
+            remaining = redisTemplate.execute(TOKEN_BUCKET_SCRIPT, keys, args);
+        } catch (Exception e) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).restorePending(consumed[i]);
+            }
+            throw e;
+        } finally {
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (remaining == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size() && i < remaining.size(); i++) {
+            batch.get(i).applyRemaining(Double.parseDouble(String.valueOf(remaining.get(i))), now);
+        }
+    }
+
+    /**
+     * 按请求方法生效的 API 限额
+     */
+    private record ApiRule(String method, String redisKey, RateLimitProperties.Limit limit) {
+
+        boolean supports(String requestMethod) {
+            return WILDCARD_METHOD.equals(method) || method.equals(requestMethod);
+        }
+    }
+
+    /**
+     * 编译后的限流规则，配置刷新时整体替换
+     */
+    private record Rules(boolean enabled, Duration syncInterval, RateLimitProperties.Limit user,
+                         List<ApiRule> apiRules, PermissionTrie trie) {
+
+        static final Rules DISABLED = new Rules(false, Duration.ofMillis(20), null, List.of(),
+                PermissionTrie.EMPTY);
+
+        /**
+         * 按配置顺序取第一个方法与路径都匹配的规则
+         */
+        ApiRule match(String method, String path) {
+            if (apiRules.isEmpty()) {
+                return null;
+            }
+            long[] matched = trie.match(ANY_METHOD, path);
+            for (int i = 0; i < apiRules.size(); i++) {
+                if (RoleBits.contains(matched, i) && apiRules.get(i).supports(method)) {
+                    return apiRules.get(i);
+                }
+            }
+            return null;
+        }
+    }
+}
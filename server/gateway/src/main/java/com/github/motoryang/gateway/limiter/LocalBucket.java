@@ -0,0 +1,118 @@
+package com.github.motoryang.gateway.limiter;
+
+import com.github.motoryang.gateway.properties.RateLimitProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 令牌桶在本节点的视图
+ * <p>
+ * available 是上次同步得到的全局剩余令牌减去此后本地的消耗，两次同步之间按 rate 在本地补充（不超过 burst），
+ * Redis 不可用、同步持续失败时桶仍按限额速率放行；
+ * pending 是尚未上报到 Redis 的本地消耗，由同步任务批量扣减。
+ * <p>
+ * 空闲桶由同步任务标记为 retired 后移除：消耗方在消耗后检查该标记，已被标记则撤销并换用新桶，
+ * 标记之前已计入的消耗由同步任务在移除时一并上报
+ */
+final class LocalBucket {
+
+    final String redisKey;
+    final RateLimitProperties.Limit limit;
+
+    private final AtomicLong available;
+    private final AtomicLong pending = new AtomicLong();
+
+    // 补充一个令牌所需的时间
+    private final long nanosPerToken;
+    private volatile long refilledAtNanos;
+
+    // 本地令牌耗尽后需要同步以获取补充，即使没有新的消耗
+    private volatile boolean exhausted;
+    private volatile boolean retired;
+    private volatile long lastAccessNanos;
+
+    LocalBucket(String redisKey, RateLimitProperties.Limit limit, long nowNanos) {
+        this.redisKey = redisKey;
+        this.limit = limit;
+        // 首次出现的 key 乐观地按满桶放行，下一次同步即得到真实余量
+        this.available = new AtomicLong(limit.burst());
+        this.nanosPerToken = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / limit.rate()));
+        this.refilledAtNanos = nowNanos;
+        this.lastAccessNanos = nowNanos;
+    }
+
+    boolean tryConsume(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        if (nowNanos - refilledAtNanos >= nanosPerToken) {
+            refill(nowNanos);
+        }
+        if (available.decrementAndGet() < 0) {
+            available.incrementAndGet();
+            exhausted = true;
+            return false;
+        }
+        pending.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 按距上次补充（或同步）经过的时间补充令牌
+     */
+    private synchronized void refill(long nowNanos) {
+        long tokens = (nowNanos - refilledAtNanos) / nanosPerToken;
+        if (tokens <= 0) {
+            return;
+        }
+        refilledAtNanos += tokens * nanosPerToken;
+        available.accumulateAndGet(tokens,
+                (current, added) -> Math.max(current, Math.min(limit.burst(), current + added)));
+    }
+
+    /**
+     * 撤销一次消耗（后续限流器拒绝时）
+     */
+    void refund() {
+        pending.decrementAndGet();
+        available.incrementAndGet();
+    }
+
+    boolean needsSync() {
+        return pending.get() != 0 || exhausted;
+    }
+
+    long drainPending() {
+        exhausted = false;
+        return pending.getAndSet(0);
+    }
+
+    /**
+     * 同步失败时把已取出的消耗放回，下次重试上报
+     */
+    void restorePending(long consumed) {
+        pending.addAndGet(consumed);
+    }
+
+    /**
+     * 应用 Redis 返回的全局剩余令牌（已包含截至同步时刻的补充），扣除上报之后新增的本地消耗
+     */
+    synchronized void applyRemaining(double remaining, long nowNanos) {
+        available.set((long) Math.floor(remaining) - pending.get());
+        refilledAtNanos = nowNanos;
+    }
+
+    /**
+     * 空闲时标记为已移除，之后的消耗方会换用新桶
+     */
+    boolean retire(long nowNanos, long idleNanos) {
+        if (pending.get() != 0 || nowNanos - lastAccessNanos <= idleNanos) {
+            return false;
+        }
+        retired = true;
+        return true;
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+}
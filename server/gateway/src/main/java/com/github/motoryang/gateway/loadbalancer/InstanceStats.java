@@ -0,0 +1,84 @@
+package com.github.motoryang.gateway.loadbalancer;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个实例的负载统计（Peak EWMA）
+ * <p>
+ * 响应耗时高于当前均值时直接取峰值，低于时按时间衰减加权：w = e^(-Δt/τ)；
+ * 读取时同样按距上次观测的时间衰减，长时间没有流量的实例会逐步回落，重新获得探测机会
+ */
+final class InstanceStats {
+
+    /**
+     * 尚无耗时数据但已有进行中请求时的惩罚耗时，避免新实例被瞬间打满
+     */
+    private static final double PENALTY_NANOS = 1_000_000_000d;
+
+    private final String serviceId;
+    private final String instance;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // 以下两个字段由 this 保护
+    private double ewmaNanos;
+    private long stampNanos;
+
+    private volatile long lastUsedNanos;
+
+    InstanceStats(String serviceId, String instance, long nowNanos) {
+        this.serviceId = serviceId;
+        this.instance = instance;
+        this.stampNanos = nowNanos;
+        this.lastUsedNanos = nowNanos;
+    }
+
+    String serviceId() {
+        return serviceId;
+    }
+
+    String instance() {
+        return instance;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long lastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    void start(long nowNanos) {
+        inFlight.incrementAndGet();
+        lastUsedNanos = nowNanos;
+    }
+
+    void finish() {
+        inFlight.decrementAndGet();
+    }
+
+    synchronized void observe(long rttNanos, long nowNanos, double tauNanos) {
+        double w = Math.exp(-Math.max(nowNanos - stampNanos, 0) / tauNanos);
+        ewmaNanos = rttNanos > ewmaNanos ? rttNanos : ewmaNanos * w + rttNanos * (1 - w);
+        stampNanos = nowNanos;
+    }
+
+    /**
+     * 衰减后的平均耗时（纳秒）
+     */
+    synchronized double ewmaNanos(long nowNanos, double tauNanos) {
+        return ewmaNanos * Math.exp(-Math.max(nowNanos - stampNanos, 0) / tauNanos);
+    }
+
+    /**
+     * 负载得分，越小越优：平均耗时 × (进行中请求数 + 1)
+     */
+    double score(long nowNanos, double tauNanos) {
+        int pending = inFlight.get();
+        double ewma = ewmaNanos(nowNanos, tauNanos);
+        if (ewma == 0 && pending > 0) {
+            return PENALTY_NANOS * pending;
+        }
+        return ewma * (pending + 1);
+    }
+}
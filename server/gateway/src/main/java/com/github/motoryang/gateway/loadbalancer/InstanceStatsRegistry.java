@@ -0,0 +1,128 @@
+package com.github.motoryang.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 实例负载统计注册表（所有 lb:// 服务共享）
+ * <p>
+ * 每个实例发布三个指标（标签 service、instance）：
+ * gateway.lb.instance.inflight、gateway.lb.instance.latency.ewma（毫秒）、gateway.lb.instance.score
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    /**
+     * 已下线实例的统计在空闲超过该时间后清理
+     */
+    private static final long STALE_NANOS = Duration.ofMinutes(5).toNanos();
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final double tauNanos;
+
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(@Value("${gateway.loadbalancer.decay-time:10s}") Duration decayTime) {
+        this.tauNanos = decayTime.toNanos();
+    }
+
+    InstanceStats get(ServiceInstance instance) {
+        String key = key(instance);
+        InstanceStats existing = stats.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return stats.computeIfAbsent(key, k -> register(k, instance));
+    }
+
+    double score(InstanceStats instanceStats, long nowNanos) {
+        return instanceStats.score(nowNanos, tauNanos);
+    }
+
+    /**
+     * 请求开始，返回开始时间
+     */
+    public long start(ServiceInstance instance) {
+        long now = System.nanoTime();
+        get(instance).start(now);
+        return now;
+    }
+
+    /**
+     * 记录响应耗时（收到响应头时调用，不包含响应体的传输时间）
+     */
+    public void observe(ServiceInstance instance, long startNanos) {
+        long now = System.nanoTime();
+        get(instance).observe(now - startNanos, now, tauNanos);
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param observe 是否记录耗时（被取消或已在响应头到达时记录过的请求只减少进行中计数）
+     */
+    public void finish(ServiceInstance instance, long startNanos, boolean observe) {
+        InstanceStats instanceStats = get(instance);
+        instanceStats.finish();
+        if (observe) {
+            long now = System.nanoTime();
+            instanceStats.observe(now - startNanos, now, tauNanos);
+        }
+    }
+
+    /**
+     * 清理服务中已不存在且长时间空闲的实例统计
+     */
+    void evictStale(String serviceId, List<ServiceInstance> current, long nowNanos) {
+        Set<String> alive = current.stream().map(InstanceStatsRegistry::key).collect(Collectors.toSet());
+        for (InstanceStats instanceStats : new ArrayList<>(stats.values())) {
+            String key = instanceStats.serviceId() + "/" + instanceStats.instance();
+            if (instanceStats.serviceId().equals(serviceId) && !alive.contains(key)
+                    && instanceStats.inFlight() == 0 && nowNanos - instanceStats.lastUsedNanos() > STALE_NANOS) {
+                stats.remove(key);
+                List<Meter> removed = meters.remove(key);
+                if (removed != null) {
+                    removed.forEach(meterRegistry::remove);
+                }
+            }
+        }
+    }
+
+    private InstanceStats register(String key, ServiceInstance instance) {
+        String serviceId = instance.getServiceId();
+        String address = instance.getHost() + ":" + instance.getPort();
+        InstanceStats instanceStats = new InstanceStats(serviceId, address, System.nanoTime());
+        Tags tags = Tags.of("service", serviceId, "instance", address);
+        meters.put(key, List.of(
+                Gauge.builder("gateway.lb.instance.inflight", instanceStats, InstanceStats::inFlight)
+                        .tags(tags).register(meterRegistry),
+                Gauge.builder("gateway.lb.instance.latency.ewma", instanceStats,
+                                s -> s.ewmaNanos(System.nanoTime(), tauNanos) / 1_000_000d)
+                        .tags(tags).baseUnit("milliseconds").register(meterRegistry),
+                Gauge.builder("gateway.lb.instance.score", instanceStats, s -> s.score(System.nanoTime(), tauNanos))
+                        .tags(tags).register(meterRegistry)
+        ));
+        return instanceStats;
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+}
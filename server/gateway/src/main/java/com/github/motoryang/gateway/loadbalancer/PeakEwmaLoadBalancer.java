@@ -0,0 +1,84 @@
+package com.github.motoryang.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟感知的负载均衡器（Power of Two Choices + Peak EWMA）
+ * <p>
+ * 随机取两个候选实例，选择负载得分（平均耗时 × (进行中请求数 + 1)）更低的一个。
+ * 正在 GC 或执行重任务的实例耗时上升、请求堆积，会迅速失去流量；恢复后得分随时间衰减，重新被选中。
+ * 耗时与进行中请求数由 {@link com.github.motoryang.gateway.filter.LoadBalancerStatsFilter} 记录
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+    private static final long EVICT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final InstanceStatsRegistry statsRegistry;
+
+    private volatile long lastEvictNanos = System.nanoTime();
+
+    public PeakEwmaLoadBalancer(String serviceId,
+                                ObjectProvider<ServiceInstanceListSupplier> supplierProvider,
+                                InstanceStatsRegistry statsRegistry) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = System.nanoTime();
+        evictStaleIfDue(instances, now);
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = instances.size();
+        int first = random.nextInt(size);
+        // 第二个候选与第一个不同
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        double scoreA = statsRegistry.score(statsRegistry.get(a), now);
+        double scoreB = statsRegistry.score(statsRegistry.get(b), now);
+        return new DefaultResponse(scoreA <= scoreB ? a : b);
+    }
+
+    private void evictStaleIfDue(List<ServiceInstance> instances, long now) {
+        if (now - lastEvictNanos < EVICT_INTERVAL_NANOS) {
+            return;
+        }
+        lastEvictNanos = now;
+        statsRegistry.evictStale(serviceId, instances, now);
+    }
+}
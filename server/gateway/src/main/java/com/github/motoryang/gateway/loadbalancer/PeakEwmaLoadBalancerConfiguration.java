@@ -0,0 +1,31 @@
+package com.github.motoryang.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * 每个 lb:// 服务子容器中的负载均衡器配置
+ * <p>
+ * 由 {@link org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients} 引用，
+ * 不能加 @Configuration，否则会被主容器扫描并覆盖所有服务
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            InstanceStatsRegistry statsRegistry) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        var supplierProvider = loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class);
+        if (!environment.getProperty("gateway.loadbalancer.peak-ewma.enabled", Boolean.class, true)) {
+            return new RoundRobinLoadBalancer(supplierProvider, serviceId);
+        }
+        return new PeakEwmaLoadBalancer(serviceId, supplierProvider, statsRegistry);
+    }
+}
@@ -1,14 +1,12 @@
 package com.github.motoryang.gateway.messaging.consumer;
 
-import com.github.motoryang.gateway.handler.PermissionCacheLoader;
+import com.github.motoryang.gateway.handler.PermissionRefreshScheduler;
 import com.github.motoryang.gateway.messaging.event.PermissionSyncType;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.Message;
 
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 /**
@@ -18,15 +16,10 @@ import java.util.function.Consumer;
 @Configuration
 public class PermissionMessageConsumer {
 
-    private final PermissionCacheLoader cacheLoader;
+    private final PermissionRefreshScheduler refreshScheduler;
 
-    // 防止并发刷新
-    private final AtomicBoolean refreshing = new AtomicBoolean(false);
-    // 时间窗口防抖（500ms）
-    private final AtomicLong lastRefreshTime = new AtomicLong(0);
-
-    public PermissionMessageConsumer(PermissionCacheLoader cacheLoader) {
-        this.cacheLoader = cacheLoader;
+    public PermissionMessageConsumer(PermissionRefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
     }
 
     @Bean
@@ -36,24 +29,9 @@ public class PermissionMessageConsumer {
             if (type != PermissionSyncType.REFRESH) {
                 return;
             }
-            // CAS 防抖：同一时间只允许一次刷新
-            if (!refreshing.compareAndSet(false, true)) {
-                return;
-            }
-            // 时间窗口防抖
-            if (System.currentTimeMillis() - lastRefreshTime.get() < 500) {
-                return;
-            }
-            log.info("[message-consumer-permSync] 刷新权限缓存");
-            lastRefreshTime.set(System.currentTimeMillis());
-            // 虚拟线程从Redis加载权限
-            Thread.startVirtualThread(() -> {
-                try {
-                    cacheLoader.loadFromRedis();
-                } finally {
-                    refreshing.set(false);
-                }
-            });
+            log.debug("[message-consumer-permSync] 收到权限刷新事件");
+            // 合并调度：重载期间到达的事件不会丢失，而是触发一次尾随重载
+            refreshScheduler.requestRefresh();
         };
     }
 
@@ -0,0 +1,38 @@
+package com.github.motoryang.gateway.messaging.consumer;
+
+import com.github.motoryang.gateway.auth.SessionEpochRegistry;
+import com.github.motoryang.gateway.auth.TokenLookup;
+import com.github.motoryang.gateway.messaging.event.SessionRevokeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+
+import java.util.function.Consumer;
+
+/**
+ * 会话消息消费者
+ */
+@Slf4j
+@Configuration
+public class SessionMessageConsumer {
+
+    private final SessionEpochRegistry sessionEpochRegistry;
+    private final TokenLookup tokenLookup;
+
+    public SessionMessageConsumer(SessionEpochRegistry sessionEpochRegistry, TokenLookup tokenLookup) {
+        this.sessionEpochRegistry = sessionEpochRegistry;
+        this.tokenLookup = tokenLookup;
+    }
+
+    @Bean
+    Consumer<Message<SessionRevokeEvent>> sessionSync() {
+        return message -> {
+            SessionRevokeEvent event = message.getPayload();
+            log.debug("[message-consumer-sessionSync] 会话吊销: {}", event);
+            sessionEpochRegistry.apply(event);
+            tokenLookup.invalidate(event.userId());
+        };
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.github.motoryang.gateway.messaging.event;
+
+/**
+ * 会话吊销事件（由 auth 服务在登录、刷新、登出时广播）
+ *
+ * @param userId        用户ID
+ * @param minValidEpoch 仍然有效的最小会话纪元
+ * @param seq           全局递增序号，用于发现丢失的事件
+ * @param devices       仍在线的设备会话数，大于 1 时最小纪元只是下界，不能据此放行
+ */
+public record SessionRevokeEvent(
+        String userId,
+        long minValidEpoch,
+        long seq,
+        int devices
+) {
+}
@@ -0,0 +1,25 @@
+package com.github.motoryang.gateway.metrics;
+
+/**
+ * 网关请求处理阶段（gateway.stage 指标的 stage 标签）
+ */
+public enum GatewayStage {
+
+    AUTH("auth"),
+    RATE_LIMIT("rate_limit"),
+    STATIC_RESOURCES("static_resources"),
+    INTERNAL("internal"),
+    PERMISSION("permission"),
+    CONCURRENCY_LIMIT("concurrency_limit"),
+    DOWNSTREAM("downstream");
+
+    private final String tag;
+
+    GatewayStage(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.motoryang.gateway.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * 把标注了 {@link TimedStage} 的 GlobalFilter 包装为 {@link TimedGlobalFilter}，过滤器本身不需要计时代码
+ */
+@Component
+public class StageTimingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof GlobalFilter filter) {
+            TimedStage timedStage = AnnotationUtils.findAnnotation(bean.getClass(), TimedStage.class);
+            if (timedStage != null) {
+                return new TimedGlobalFilter(filter, timedStage.value());
+            }
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.motoryang.gateway.metrics;
+
+import reactor.core.publisher.SignalType;
+
+import java.util.Arrays;
+
+/**
+ * 单个请求各阶段的耗时，存放在 exchange 属性中
+ * <p>
+ * 请求路径上只写入 nanoTime 差值，请求结束时由 {@link StageTimingRecorder} 统一记录到 Timer。
+ * 同一请求的过滤器按顺序执行，不需要同步
+ */
+public final class StageTimings {
+
+    static final byte NOT_RECORDED = 0;
+    static final byte PASSED = 1;
+    static final byte REJECTED = 2;
+    static final byte ERROR = 3;
+    static final byte CANCELLED = 4;
+
+    private static final GatewayStage[] STAGES = GatewayStage.values();
+
+    private final long[] durations = new long[STAGES.length];
+    private final byte[] outcomes = new byte[STAGES.length];
+
+    /**
+     * 阶段处理完成，请求继续传递
+     */
+    public void pass(GatewayStage stage, long startNanos) {
+        int i = stage.ordinal();
+        if (outcomes[i] == NOT_RECORDED) {
+            durations[i] = System.nanoTime() - startNanos;
+            outcomes[i] = PASSED;
+        }
+    }
+
+    /**
+     * 阶段结束：未调用下一个过滤器时按信号记为拒绝、异常或取消
+     */
+    public void finish(GatewayStage stage, long startNanos, SignalType signal) {
+        int i = stage.ordinal();
+        if (outcomes[i] == NOT_RECORDED) {
+            durations[i] = System.nanoTime() - startNanos;
+            outcomes[i] = switch (signal) {
+                case ON_ERROR -> ERROR;
+                case CANCEL -> CANCELLED;
+                default -> REJECTED;
+            };
+        }
+    }
+
+    byte outcome(GatewayStage stage) {
+        return outcomes[stage.ordinal()];
+    }
+
+    long duration(GatewayStage stage) {
+        return durations[stage.ordinal()];
+    }
+
+    static GatewayStage[] stages() {
+        return STAGES;
+    }
+
+    @Override
+    public String toString() {
+        return "StageTimings" + Arrays.toString(durations);
+    }
+}
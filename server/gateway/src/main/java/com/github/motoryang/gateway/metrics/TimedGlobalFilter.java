@@ -0,0 +1,48 @@
+package com.github.motoryang.gateway.metrics;
+
+import com.github.motoryang.gateway.constants.Constants;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * 计时包装：记录被包装过滤器从进入到调用下一个过滤器的耗时
+ */
+final class TimedGlobalFilter implements GlobalFilter, Ordered {
+
+    private final GlobalFilter delegate;
+    private final GatewayStage stage;
+    private final int order;
+
+    TimedGlobalFilter(GlobalFilter delegate, GatewayStage stage) {
+        this.delegate = delegate;
+        this.stage = stage;
+        this.order = delegate instanceof Ordered ordered ? ordered.getOrder() : Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        StageTimings timings = exchange.getAttribute(Constants.STAGE_TIMINGS);
+        if (timings == null) {
+            return delegate.filter(exchange, chain);
+        }
+        long start = System.nanoTime();
+        return delegate.filter(exchange, next -> {
+                    timings.pass(stage, start);
+                    return chain.filter(next);
+                })
+                .doFinally(signal -> timings.finish(stage, start, signal));
+    }
+
+    @Override
+    public int getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "Timed[" + stage.tag() + "]" + delegate;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.motoryang.gateway.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记需要计时的 GlobalFilter，由 {@link StageTimingPostProcessor} 包装
+ * <p>
+ * 阶段耗时为进入过滤器到调用下一个过滤器（或直接返回响应）之间的时间，包含其中的异步等待（如 Redis 查询）
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TimedStage {
+
+    GatewayStage value();
+}
@@ -0,0 +1,32 @@
+package com.github.motoryang.gateway.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * 路由自适应并发限制配置
+ *
+ * @param enabled       是否启用（默认关闭，按需开启）
+ * @param initialLimit  初始并发上限
+ * @param minLimit      并发上限下界
+ * @param maxLimit      并发上限上界
+ * @param tolerance     可容忍的 RTT 膨胀倍数，短期 RTT 超过长期 RTT 的该倍数时开始收缩
+ * @param smoothing     每次调整的平滑系数（0~1）
+ * @param retryAfter    拒绝时返回的 Retry-After
+ * @param excludeRoutes 不做限制的路由ID（长连接、流式下载等长时间占用名额的路由）；WebSocket 升级请求总是跳过
+ */
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("20") int initialLimit,
+        @DefaultValue("5") int minLimit,
+        @DefaultValue("500") int maxLimit,
+        @DefaultValue("1.5") double tolerance,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue Set<String> excludeRoutes
+) {
+}
@@ -0,0 +1,50 @@
+package com.github.motoryang.gateway.properties;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 分布式限流配置（前缀 gateway.rate-limit，Nacos 动态刷新时重新绑定）
+ *
+ * @param enabled      是否启用
+ * @param syncInterval 本地消耗批量同步到 Redis 的间隔
+ * @param user         每个用户的默认限额
+ * @param apis         按 API 规则的全局限额，按配置顺序取第一个匹配项
+ */
+public record RateLimitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("20ms") Duration syncInterval,
+        @DefaultValue Limit user,
+        @DefaultValue List<ApiLimit> apis
+) {
+
+    /**
+     * 令牌桶限额
+     *
+     * @param rate  每秒补充的令牌数
+     * @param burst 桶容量（允许的突发请求数）
+     */
+    public record Limit(
+            @DefaultValue("50") double rate,
+            @DefaultValue("100") long burst
+    ) {
+    }
+
+    /**
+     * API 限额
+     *
+     * @param method  请求方法，* 表示任意方法
+     * @param pattern Ant 风格路径规则
+     * @param rate    每秒补充的令牌数
+     * @param burst   桶容量
+     */
+    public record ApiLimit(
+            @DefaultValue("*") String method,
+            String pattern,
+            double rate,
+            long burst
+    ) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.motoryang.gateway.staticcache;
+
+import java.nio.file.Path;
+
+/**
+ * 缓存的静态对象元数据
+ * <p>
+ * 响应体可能在内存层（字节数组），也可能只在磁盘层（file，写入完成前为 null）
+ */
+final class CachedObject {
+
+    final String etag;
+    final String contentType;
+    final String lastModified;
+    final long length;
+
+    // 内存层的响应体，被内存层淘汰后置空
+    private volatile byte[] body;
+    private volatile Path file;
+    private volatile long validatedAtNanos;
+
+    CachedObject(String etag, String contentType, String lastModified, byte[] body, long validatedAtNanos) {
+        this.etag = etag;
+        this.contentType = contentType;
+        this.lastModified = lastModified;
+        this.length = body.length;
+        this.body = body;
+        this.validatedAtNanos = validatedAtNanos;
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    void dropBody() {
+        this.body = null;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    void file(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * 内存层或磁盘层至少有一处可以提供响应体
+     */
+    boolean hasBody() {
+        return body != null || file != null;
+    }
+
+    boolean isFresh(long nowNanos, long maxAgeNanos) {
+        return nowNanos - validatedAtNanos < maxAgeNanos;
+    }
+
+    void revalidated(long nowNanos) {
+        this.validatedAtNanos = nowNanos;
+    }
+}
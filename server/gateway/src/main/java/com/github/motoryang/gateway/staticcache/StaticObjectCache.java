@@ -0,0 +1,448 @@
+package com.github.motoryang.gateway.staticcache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 网关侧静态对象缓存（内存层 + 磁盘层）
+ * <p>
+ * 元数据表按对象大小加权，上限即磁盘层容量，被淘汰时删除对应文件；
+ * 内存层按大小加权保存热点对象的字节数组，被淘汰后对象仍可从磁盘层零拷贝发送（sendfile）。
+ * 磁盘层文件写在配置目录下本进程独占的 pid-{pid} 子目录中，启动时只清理本缓存命名规则的文件，
+ * 且只清理已退出进程（或本进程）的子目录；未配置目录时只使用内存层。
+ * 超过 max-age 的对象携带 If-None-Match 向源站重新验证，304 时只刷新验证时间；
+ * 同一对象的并发未命中与重新验证合并为一次源站请求；源站请求超过 fetch-timeout 时使用旧对象，没有旧对象时直接转发。
+ * 不可缓存的对象（过大、非 200、no-store / private）在 max-age 内记为否定条目，期间直接转发，
+ * 不再先向源站取一次再由路由重复请求。
+ * <p>
+ * 指标：gateway.static.cache.requests（标签 result=hit|revalidated|miss|not_modified|bypass）、
+ * gateway.static.cache.bytes.saved、gateway.static.cache.hit.ratio、
+ * gateway.static.cache.memory.bytes、gateway.static.cache.disk.bytes
+ */
+@Slf4j
+public class StaticObjectCache {
+
+    // 被淘汰的文件延迟删除，避免正在发送的文件被提前删除
+    private static final long DELETE_DELAY_SECONDS = 30;
+
+    // 进程子目录与缓存文件的命名规则，启动清理只删除符合规则的条目
+    private static final String PROCESS_DIR_PREFIX = "pid-";
+    private static final Pattern PROCESS_DIR = Pattern.compile(PROCESS_DIR_PREFIX + "(\\d+)");
+    private static final Pattern CACHE_FILE = Pattern.compile("[0-9a-f]{64}-\\d+|static\\d*\\.tmp");
+    private static final String TMP_PREFIX = "static";
+
+    // 磁盘层目录，为 null 时只使用内存层
+    private final Path directory;
+    private final long maxObjectSize;
+    private final long maxAgeNanos;
+    private final Duration fetchTimeout;
+    private final WebClient webClient;
+
+    // key -> 元数据（按对象大小加权，上限为磁盘层容量）
+    private final Cache<String, CachedObject> objects;
+    // key -> 持有响应体的对象（按对象大小加权，上限为内存层容量）
+    private final Cache<String, CachedObject> memory;
+    // 不可缓存的 key（否定条目，max-age 后重新探测）
+    private final Cache<String, Boolean> uncacheable;
+
+    private final Map<String, Mono<Optional<Loaded>>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong fileSequence = new AtomicLong();
+
+    private final Counter hitCounter;
+    private final Counter revalidatedCounter;
+    private final Counter missCounter;
+    private final Counter notModifiedCounter;
+    private final Counter bypassCounter;
+    private final Counter bytesSaved;
+
+    /**
+     * @param baseDirectory 磁盘层根目录，为 null 时只使用内存层
+     */
+    public StaticObjectCache(Path baseDirectory, long memoryMaxSize, long diskMaxSize, long maxObjectSize,
+                             Duration maxAge, Duration fetchTimeout, HttpClient httpClient,
+                             MeterRegistry meterRegistry) {
+        this.directory = baseDirectory == null ? null : prepareDirectory(baseDirectory);
+        this.maxObjectSize = maxObjectSize;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.fetchTimeout = fetchTimeout;
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) Math.min(Integer.MAX_VALUE, maxObjectSize)))
+                .build();
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxSize)
+                .weigher((String key, CachedObject value) -> weight(value))
+                .removalListener((String key, CachedObject value, RemovalCause cause) -> {
+                    if (value != null && cause.wasEvicted()) {
+                        value.dropBody();
+                    }
+                })
+                .build();
+        this.objects = Caffeine.newBuilder()
+                .maximumWeight(diskMaxSize)
+                .weigher((String key, CachedObject value) -> weight(value))
+                .removalListener((String key, CachedObject value, RemovalCause cause) -> {
+                    if (value != null) {
+                        memory.asMap().remove(key, value);
+                        deleteLater(value.file());
+                    }
+                })
+                .build();
+        this.uncacheable = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(maxAge)
+                .build();
+
+        this.hitCounter = meterRegistry.counter("gateway.static.cache.requests", "result", "hit");
+        this.revalidatedCounter = meterRegistry.counter("gateway.static.cache.requests", "result", "revalidated");
+        this.missCounter = meterRegistry.counter("gateway.static.cache.requests", "result", "miss");
+        this.notModifiedCounter = meterRegistry.counter("gateway.static.cache.requests", "result", "not_modified");
+        this.bypassCounter = meterRegistry.counter("gateway.static.cache.requests", "result", "bypass");
+        this.bytesSaved = meterRegistry.counter("gateway.static.cache.bytes.saved");
+        Gauge.builder("gateway.static.cache.hit.ratio", this, StaticObjectCache::hitRatio).register(meterRegistry);
+        Gauge.builder("gateway.static.cache.memory.bytes", memory, StaticObjectCache::weightedSize).register(meterRegistry);
+        Gauge.builder("gateway.static.cache.disk.bytes", objects, StaticObjectCache::weightedSize).register(meterRegistry);
+
+    }
+
+    private static int weight(CachedObject value) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, value.length));
+    }
+
+    private static double weightedSize(Cache<String, CachedObject> cache) {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private double hitRatio() {
+        double served = hitCounter.count() + revalidatedCounter.count() + notModifiedCounter.count();
+        double total = served + missCounter.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    /**
+     * 元数据不落盘：清理已退出进程遗留的缓存文件，创建本进程的子目录；目录不可用时返回 null（只使用内存层）
+     */
+    private static Path prepareDirectory(Path baseDirectory) {
+        long pid = ProcessHandle.current().pid();
+        try {
+            Files.createDirectories(baseDirectory);
+            try (DirectoryStream<Path> children = Files.newDirectoryStream(baseDirectory)) {
+                for (Path child : children) {
+                    Matcher matcher = PROCESS_DIR.matcher(child.getFileName().toString());
+                    if (matcher.matches() && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)
+                            && !isOtherLiveProcess(Long.parseLong(matcher.group(1)), pid)) {
+                        cleanProcessDirectory(child);
+                    }
+                }
+            }
+            Path directory = baseDirectory.resolve(PROCESS_DIR_PREFIX + pid);
+            if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+                Files.createDirectories(directory,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(directory);
+            }
+            return directory;
+        } catch (IOException | RuntimeException e) {
+            log.warn("静态对象缓存目录不可用，仅使用内存层: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isOtherLiveProcess(long pid, long currentPid) {
+        return pid != currentPid && ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    /**
+     * 只删除符合缓存命名规则的普通文件，目录随之为空时一并删除
+     */
+    private static void cleanProcessDirectory(Path processDirectory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(processDirectory)) {
+            for (Path file : files) {
+                if (CACHE_FILE.matcher(file.getFileName().toString()).matches()
+                        && Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(processDirectory);
+        } catch (DirectoryNotEmptyException e) {
+            log.debug("Static cache directory {} keeps unrecognized files", processDirectory);
+        }
+    }
+
+    /**
+     * 处理一个可缓存的 GET 请求
+     *
+     * @param uri 转发目标地址（已完成 StripPrefix 等路径改写），路径与查询参数作为缓存 key
+     */
+    public Mono<Void> handle(ServerWebExchange exchange, GatewayFilterChain chain, URI uri) {
+        String key = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        if (uncacheable.getIfPresent(key) != null) {
+            bypassCounter.increment();
+            return chain.filter(exchange);
+        }
+        CachedObject cached = objects.getIfPresent(key);
+        if (cached != null && cached.hasBody()) {
+            if (cached.isFresh(System.nanoTime(), maxAgeNanos)) {
+                return serve(exchange, chain, cached, cached.body(), hitCounter);
+            }
+        } else {
+            cached = null;
+        }
+        CachedObject stale = cached;
+        return load(key, uri, stale).flatMap(loaded -> {
+            if (loaded.isEmpty()) {
+                bypassCounter.increment();
+                return chain.filter(exchange);
+            }
+            CachedObject object = loaded.get().object();
+            Counter result = object == stale ? revalidatedCounter : missCounter;
+            return serve(exchange, chain, object, loaded.get().body(), result);
+        });
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, GatewayFilterChain chain, CachedObject object,
+                             byte[] body, Counter result) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        if (object.etag != null && matchesIfNoneMatch(exchange.getRequest().getHeaders(), object.etag)) {
+            notModifiedCounter.increment();
+            bytesSaved.increment(object.length);
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.set(HttpHeaders.ETAG, object.etag);
+            return response.setComplete();
+        }
+
+        Path file = object.file();
+        if (body == null && (file == null || !(response instanceof ZeroCopyHttpOutputMessage))) {
+            // 内存层刚被淘汰且文件尚未写完
+            bypassCounter.increment();
+            return chain.filter(exchange);
+        }
+        result.increment();
+        if (result != missCounter) {
+            bytesSaved.increment(object.length);
+        }
+        response.setStatusCode(HttpStatus.OK);
+        if (object.etag != null) {
+            headers.set(HttpHeaders.ETAG, object.etag);
+        }
+        if (object.contentType != null) {
+            headers.setContentType(MediaType.parseMediaType(object.contentType));
+        }
+        if (object.lastModified != null) {
+            headers.set(HttpHeaders.LAST_MODIFIED, object.lastModified);
+        }
+        headers.setContentLength(object.length);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        if (body != null) {
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+        }
+        return ((ZeroCopyHttpOutputMessage) response).writeWith(file, 0, object.length);
+    }
+
+    /**
+     * If-None-Match 是否命中：逐个比较列表中的实体标签（弱比较，忽略 W/ 前缀），* 匹配任意对象
+     */
+    private static boolean matchesIfNoneMatch(HttpHeaders requestHeaders, String etag) {
+        List<String> values = requestHeaders.get(HttpHeaders.IF_NONE_MATCH);
+        if (values == null) {
+            return false;
+        }
+        ETag target = ETag.create(etag);
+        for (String value : values) {
+            for (ETag candidate : ETag.parse(value)) {
+                if (candidate.isWildcard() || candidate.compare(target, false)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从源站加载或重新验证，同一 key 的并发调用共享一次请求；结果为空表示对象不可缓存
+     */
+    private Mono<Optional<Loaded>> load(String key, URI uri, CachedObject stale) {
+        Mono<Optional<Loaded>> pending = inFlight.get(key);
+        if (pending != null) {
+            return pending;
+        }
+        Sinks.One<Optional<Loaded>> sink = Sinks.one();
+        Mono<Optional<Loaded>> shared = sink.asMono();
+        pending = inFlight.putIfAbsent(key, shared);
+        if (pending != null) {
+            return pending;
+        }
+        fetch(key, uri, stale)
+                .timeout(fetchTimeout)
+                .onErrorResume(e -> {
+                    log.debug("Static object fetch failed, key={}: {}", key, e.getMessage());
+                    // 源站不可用或超时时继续使用旧对象，没有旧对象时直接转发
+                    return Mono.just(stale == null ? Optional.empty() : Optional.of(new Loaded(stale, stale.body())));
+                })
+                .defaultIfEmpty(Optional.empty())
+                .subscribe(value -> {
+                    inFlight.remove(key, shared);
+                    sink.tryEmitValue(value);
+                });
+        return shared;
+    }
+
+    private Mono<Optional<Loaded>> fetch(String key, URI uri, CachedObject stale) {
+        return webClient.get()
+                .uri(uri)
+                .headers(headers -> {
+                    if (stale != null && stale.etag != null) {
+                        headers.setIfNoneMatch(stale.etag);
+                    }
+                })
+                .exchangeToMono(response -> {
+                    if (stale != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                        stale.revalidated(System.nanoTime());
+                        return response.releaseBody().thenReturn(Optional.of(new Loaded(stale, stale.body())));
+                    }
+                    if (response.statusCode().value() != HttpStatus.OK.value() || !isCacheable(response)) {
+                        markUncacheable(key);
+                        return response.releaseBody().thenReturn(Optional.<Loaded>empty());
+                    }
+                    return response.bodyToMono(byte[].class)
+                            .map(body -> Optional.of(new Loaded(store(key, response.headers().asHttpHeaders(), body), body)))
+                            .onErrorResume(DataBufferLimitException.class, e -> {
+                                // 未声明长度（chunked）且超过 max-object-size
+                                markUncacheable(key);
+                                return Mono.just(Optional.empty());
+                            });
+                });
+    }
+
+    private boolean isCacheable(ClientResponse response) {
+        OptionalLong length = response.headers().contentLength();
+        if (length.isPresent() && length.getAsLong() > maxObjectSize) {
+            return false;
+        }
+        String cacheControl = response.headers().asHttpHeaders().getCacheControl();
+        return cacheControl == null
+                || (!cacheControl.contains(CacheControl.noStore().getHeaderValue())
+                && !cacheControl.contains("private"));
+    }
+
+    /**
+     * 记录否定条目，并移除已变为不可缓存的旧对象
+     */
+    private void markUncacheable(String key) {
+        uncacheable.put(key, Boolean.TRUE);
+        objects.invalidate(key);
+    }
+
+    private CachedObject store(String key, HttpHeaders headers, byte[] body) {
+        CachedObject object = new CachedObject(headers.getFirst(HttpHeaders.ETAG),
+                headers.getFirst(HttpHeaders.CONTENT_TYPE),
+                headers.getFirst(HttpHeaders.LAST_MODIFIED),
+                body,
+                System.nanoTime());
+        objects.put(key, object);
+        memory.put(key, object);
+        Mono.fromRunnable(() -> writeFile(key, object, body))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe();
+        return object;
+    }
+
+    private void writeFile(String key, CachedObject object, byte[] body) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            // 每次写入使用新文件名，不覆盖可能正在发送的旧文件
+            Path file = directory.resolve(digest(key) + "-" + fileSequence.incrementAndGet());
+            Path tmp = Files.createTempFile(directory, TMP_PREFIX, ".tmp");
+            Files.write(tmp, body);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            object.file(file);
+            if (objects.getIfPresent(key) != object) {
+                // 写入期间已被淘汰或替换
+                deleteLater(file);
+            }
+        } catch (IOException e) {
+            log.debug("Static object disk write failed, key={}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void deleteLater(Path file) {
+        if (file == null) {
+            return;
+        }
+        CompletableFuture.delayedExecutor(DELETE_DELAY_SECONDS, TimeUnit.SECONDS).execute(() -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Static object file delete failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    private static String digest(String key) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 加载结果，body 为 null 时从磁盘层发送
+     */
+    private record Loaded(CachedObject object, byte[] body) {
+    }
+}
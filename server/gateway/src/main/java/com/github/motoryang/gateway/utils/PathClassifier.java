@@ -0,0 +1,128 @@
+package com.github.motoryang.gateway.utils;
+
+import com.github.motoryang.gateway.constants.Constants;
+import com.github.motoryang.gateway.handler.PermissionTrie;
+import com.github.motoryang.gateway.handler.RoleBits;
+import com.github.motoryang.gateway.handler.RoleRegistry;
+import com.github.motoryang.gateway.messaging.model.ApiPattern;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 请求路径分类器
+ * <p>
+ * 启动时及白名单配置刷新时，把白名单、公开静态资源、静态资源、WebSocket 规则编译为一棵 {@link PermissionTrie}，
+ * 每个分类占用一个位，一次遍历即可得到路径命中的所有分类，再按优先级取第一个：
+ * WHITELISTED > PUBLIC_STATIC > PRIVATE_STATIC > WEBSOCKET > PROTECTED。
+ * 匹配语义与 AntPathMatcher 一致（支持 ?、*、**、{var}，点号按字面量处理）。
+ * <p>
+ * 分类结果存入 exchange 属性，后续过滤器直接读取
+ */
+@Slf4j
+@Component
+public class PathClassifier {
+
+    private static final String WHITELIST_PROPERTY = "spring.cloud.gateway.whitelist";
+    private static final String ANY_METHOD = "ANY";
+
+    /**
+     * 公开静态资源，无需认证即可访问
+     */
+    private static final List<String> PUBLIC_STATIC_PATTERNS = List.of(
+            "/static/unistack/avatar/**"
+    );
+
+    private static final List<String> STATIC_PATTERNS = List.of("/static/**");
+
+    private static final List<String> WEBSOCKET_PATTERNS = List.of("/ws", "/ws/**");
+
+    /**
+     * 按优先级排列，下标即分类在位图中的位置
+     */
+    private static final PathType[] PRIORITY = {
+            PathType.WHITELISTED, PathType.PUBLIC_STATIC, PathType.PRIVATE_STATIC, PathType.WEBSOCKET
+    };
+
+    @Resource
+    private Environment environment;
+
+    private volatile PermissionTrie trie = PermissionTrie.EMPTY;
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+    }
+
+    /**
+     * 白名单配置刷新（Nacos 动态配置）时重新编译
+     */
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(WHITELIST_PROPERTY))) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        String[] whitelist = Binder.get(environment)
+                .bind(WHITELIST_PROPERTY, Bindable.of(String[].class))
+                .orElse(new String[0]);
+
+        // 独立的注册表：分类按 PRIORITY 顺序驻留，ID 即 PRIORITY 下标
+        RoleRegistry categories = RoleRegistry.unpinned();
+        for (PathType type : PRIORITY) {
+            categories.intern(type.name());
+        }
+
+        List<ApiPattern> patterns = new ArrayList<>();
+        for (String path : whitelist) {
+            if (path != null && !path.isBlank()) {
+                patterns.add(pattern(path.trim(), PathType.WHITELISTED));
+            }
+        }
+        PUBLIC_STATIC_PATTERNS.forEach(path -> patterns.add(pattern(path, PathType.PUBLIC_STATIC)));
+        STATIC_PATTERNS.forEach(path -> patterns.add(pattern(path, PathType.PRIVATE_STATIC)));
+        WEBSOCKET_PATTERNS.forEach(path -> patterns.add(pattern(path, PathType.WEBSOCKET)));
+
+        this.trie = PermissionTrie.compile(patterns, categories);
+        log.info("Gateway path classifier compiled, whitelistSize={}", whitelist.length);
+    }
+
+    private static ApiPattern pattern(String path, PathType type) {
+        return new ApiPattern(ANY_METHOD, path, Set.of(type.name()));
+    }
+
+    /**
+     * 分类当前请求路径，同一个 exchange 只计算一次
+     */
+    public PathType classify(ServerWebExchange exchange) {
+        PathType type = exchange.getAttribute(Constants.PATH_TYPE);
+        if (type == null) {
+            type = classify(exchange.getRequest().getURI().getPath());
+            exchange.getAttributes().put(Constants.PATH_TYPE, type);
+        }
+        return type;
+    }
+
+    public PathType classify(String path) {
+        long[] matched = trie.match(ANY_METHOD, path);
+        for (int i = 0; i < PRIORITY.length; i++) {
+            if (RoleBits.contains(matched, i)) {
+                return PRIORITY[i];
+            }
+        }
+        return PathType.PROTECTED;
+    }
+}
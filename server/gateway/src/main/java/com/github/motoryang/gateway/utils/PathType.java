@@ -0,0 +1,40 @@
+package com.github.motoryang.gateway.utils;
+
+/**
+ * 请求路径分类
+ */
+public enum PathType {
+
+    /**
+     * 白名单：跳过认证与鉴权
+     */
+    WHITELISTED,
+
+    /**
+     * 公开静态资源：跳过认证与鉴权
+     */
+    PUBLIC_STATIC,
+
+    /**
+     * 私有静态资源：需要访问令牌
+     */
+    PRIVATE_STATIC,
+
+    /**
+     * WebSocket：需要认证，暂不做接口鉴权
+     */
+    WEBSOCKET,
+
+    /**
+     * 受保护接口：需要认证与鉴权
+     */
+    PROTECTED;
+
+    public boolean requiresAuthentication() {
+        return this != WHITELISTED && this != PUBLIC_STATIC;
+    }
+
+    public boolean requiresPermission() {
+        return this == PRIVATE_STATIC || this == PROTECTED;
+    }
+}
@@ -1,9 +1,6 @@
 package com.github.motoryang.gateway.utils;
 
 import com.github.motoryang.gateway.constants.Constants;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -14,8 +11,9 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 网关使用的Token工具类
@@ -41,49 +39,69 @@ public class TokenUtils {
     }
 
     /**
-     * 解析Token
-     * @param token token
-     * @param bytes JWT Secret
+     * 预编码的响应体：状态码 -> 提示信息 -> JSON 字节
+     * <p>
+     * 提示信息都是固定文案，数量有限；拒绝请求时只需一次哈希查找并包装已有字节，不再格式化与编码字符串
      */
-    public static Claims parseToken(String token, byte[] bytes) {
-        SecretKey key = Keys.hmacShaKeyFor(bytes);
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
+    private static final Map<HttpStatus, Map<String, byte[]>> ENCODED_BODIES = new ConcurrentHashMap<>();
 
     /**
      * 鉴权未通过时返回
      */
     public static Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
-        ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(HttpStatus.UNAUTHORIZED);
-        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-
-        String body = """
-                {"code":401,"message":"%s","data":null}
-                """.formatted(message);
-
-        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
-        return response.writeWith(Mono.just(buffer));
+        return writeJson(exchange, HttpStatus.UNAUTHORIZED, message);
     }
 
     /**
      * 资源未授权时返回
      */
     public static Mono<Void> forbidden(ServerWebExchange exchange, String message) {
+        return writeJson(exchange, HttpStatus.FORBIDDEN, message);
+    }
+
+    /**
+     * 网关限流/过载保护时返回
+     *
+     * @param retryAfterSeconds 建议客户端重试的等待秒数
+     */
+    public static Mono<Void> serviceUnavailable(ServerWebExchange exchange, String message, long retryAfterSeconds) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return writeJson(exchange, HttpStatus.SERVICE_UNAVAILABLE, message);
+    }
+
+    /**
+     * 请求频率超过限额时返回
+     *
+     * @param retryAfterSeconds 建议客户端重试的等待秒数
+     */
+    public static Mono<Void> tooManyRequests(ServerWebExchange exchange, String message, long retryAfterSeconds) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return writeJson(exchange, HttpStatus.TOO_MANY_REQUESTS, message);
+    }
+
+    private static Mono<Void> writeJson(ServerWebExchange exchange, HttpStatus status, String message) {
+        byte[] body = encodedBody(status, message);
         ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(HttpStatus.FORBIDDEN);
+        response.setStatusCode(status);
         response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().setContentLength(body.length);
 
-        String body = """
-                {"code":403,"message":"%s","data":null}
-                """.formatted(message);
-
-        DataBuffer buffer = response.bufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        DataBuffer buffer = response.bufferFactory().wrap(body);
         return response.writeWith(Mono.just(buffer));
     }
 
+    private static byte[] encodedBody(HttpStatus status, String message) {
+        Map<String, byte[]> bodies = ENCODED_BODIES.get(status);
+        if (bodies == null) {
+            bodies = ENCODED_BODIES.computeIfAbsent(status, key -> new ConcurrentHashMap<>());
+        }
+        byte[] body = bodies.get(message);
+        if (body == null) {
+            body = bodies.computeIfAbsent(message, key -> """
+                    {"code":%d,"message":"%s","data":null}
+                    """.formatted(status.value(), key).getBytes(StandardCharsets.UTF_8));
+        }
+        return body;
+    }
+
 }
@@ -0,0 +1,33 @@
+package com.github.motoryang.gateway.utils;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.web.server.ServerWebExchange;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * WebSocket 请求识别
+ * <p>
+ * WebSocket 连接在整个会话期间占用一次请求的生命周期，按请求统计并发或耗时的过滤器需要跳过
+ */
+public class WebSocketUtils {
+
+    private WebSocketUtils() {
+    }
+
+    /**
+     * 是否为 WebSocket 升级请求（Upgrade: websocket，或路由目标为 ws / wss）
+     */
+    public static boolean isWebSocket(ServerWebExchange exchange) {
+        String upgrade = exchange.getRequest().getHeaders().getUpgrade();
+        if ("websocket".equalsIgnoreCase(upgrade)) {
+            return true;
+        }
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (route == null || route.getUri() == null) {
+            return false;
+        }
+        String scheme = route.getUri().getScheme();
+        return "ws".equalsIgnoreCase(scheme) || "wss".equalsIgnoreCase(scheme);
+    }
+}
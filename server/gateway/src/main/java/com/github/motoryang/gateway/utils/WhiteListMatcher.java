@@ -1,49 +0,0 @@
-package com.github.motoryang.gateway.utils;
-
-import com.github.motoryang.gateway.properties.WhitelistedProperties;
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.Resource;
-import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
-
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.regex.Pattern;
-
-/**
- * 路由白名单匹配器 <br />
- * HashSet + 预编译正则可以使匹配耗时降低80%
- */
-@Component
-public class WhiteListMatcher {
-
-    private final Set<String> fixedPaths = new HashSet<>();
-    private final List<Pattern> wildcardPatterns = new ArrayList<>();
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
-
-    @Resource
-    private WhitelistedProperties properties;
-
-    @PostConstruct
-    public void init() {
-        for (String path : properties.whitelist()) {
-            if (path.contains("*") || path.contains("?")) {
-                // 将 Ant 风格转换为正则并预编译
-                String regex = path.replace("**", ".+").replace("*", "[^/]+");
-                wildcardPatterns.add(Pattern.compile(regex));
-            } else {
-                fixedPaths.add(path.trim());
-            }
-        }
-    }
-
-    public boolean isWhitelisted(String path) {
-        // 1. 先进行 O(1) 的精确匹配
-        if (fixedPaths.contains(path)) return true;
-        // 2. 只有精确匹配失败才进行正则匹配
-        return wildcardPatterns.stream().anyMatch(p -> p.matcher(path).matches());
-    }
-
-}
@@ -0,0 +1,123 @@
+package com.github.motoryang.gateway.handler;
+
+import com.github.motoryang.gateway.messaging.model.ApiPattern;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * PermissionTrie 与 AntPathMatcher 的差分测试：同一组规则与路径，两者的匹配结果必须一致
+ */
+class PermissionTrieTest {
+
+    private static final AntPathMatcher ANT = new AntPathMatcher();
+
+    private static final List<String> PATTERNS = List.of(
+            "/", "/*", "/**", "/a", "/a/", "/a/*", "/a/*/", "/a/**", "/a/**/", "/a/b", "/a/b/",
+            "/a/{id}", "/a/{id}/b", "/a/*/b", "/a/**/b", "/a/**/b/", "/a/**/*", "/**/b", "/**/b/**",
+            "/a/**/b/**/c", "/a/**/**/b", "//a//b", "/a/b*", "/a/*.js", "/a/v?", "/a/{id:\\d+}",
+            "/a/user-*/**", "a/b"
+    );
+
+    private static final List<String> PATHS = List.of(
+            "/", "//", "/a", "/a/", "/a//", "/b", "/b/", "/a/b", "/a/b/", "/a//b", "/a/c", "/a/c/",
+            "/a/b/c", "/a/b/c/", "/a/x/b", "/a/x/b/", "/a/x/y/b", "/a/b/b", "/a/b/x/c", "/a/x/b/y/c",
+            "/a/bc", "/a/app.js", "/a/v1", "/a/v12", "/a/123", "/a/123/b", "/a/user-1", "/a/user-1/x",
+            "/x/b", "/x/b/y"
+    );
+
+    @ParameterizedTest(name = "{0} ~ {1} = {2}")
+    @CsvSource({
+            // 末尾斜杠
+            "/a/b, /a/b, true",
+            "/a/b, /a/b/, false",
+            "/a/b/, /a/b/, true",
+            "/a/**, /a/b/, true",
+            "/a/**/b, /a/x/b/, false",
+            // /a/* 与 /a/
+            "/a/*, /a/, true",
+            "/a/*, /a, false",
+            "/a/{id}, /a/, false",
+            "/a/**/*, /a/, false",
+            // ** 匹配零个路径段
+            "/a/**, /a, true",
+            "/a/**/b, /a/b, true",
+            "/**/b, /b, true",
+            "/a/**/**/b, /a/b, true",
+            // 段内通配交给 AntPathMatcher
+            "/a/*.js, /a/app.js, true",
+            "/a/*.js, /a/app.css, false",
+            "/a/v?, /a/v1, true",
+            "/a/v?, /a/v12, false",
+            "'/a/{id:\\d+}', /a/123, true",
+            "'/a/{id:\\d+}', /a/abc, false"
+    })
+    void matchesKnownCases(String pattern, String path, boolean expected) {
+        assertEquals(expected, ANT.match(pattern, path), "AntPathMatcher");
+        assertEquals(expected, matches(pattern, path), "PermissionTrie");
+    }
+
+    @Test
+    void matchesAntPathMatcherForEveryPatternAndPath() {
+        for (String pattern : PATTERNS) {
+            for (String path : PATHS) {
+                assertEquals(ANT.match(pattern, path), matches(pattern, path), pattern + " ~ " + path);
+            }
+        }
+    }
+
+    @Test
+    void unionsRolesOfAllMatchingPatterns() {
+        RoleRegistry roleRegistry = new RoleRegistry();
+        List<ApiPattern> patterns = new ArrayList<>();
+        for (int i = 0; i < PATTERNS.size(); i++) {
+            patterns.add(new ApiPattern("GET", PATTERNS.get(i), Set.of("R" + i)));
+        }
+        PermissionTrie trie = PermissionTrie.compile(patterns, roleRegistry);
+        for (String path : PATHS) {
+            long[] roles = trie.match("GET", path);
+            for (int i = 0; i < PATTERNS.size(); i++) {
+                boolean granted = RoleBits.contains(roles, roleRegistry.intern("R" + i));
+                assertEquals(ANT.match(PATTERNS.get(i), path), granted, PATTERNS.get(i) + " ~ " + path);
+            }
+        }
+    }
+
+    @Test
+    void matchesAntPathMatcherForRandomPatterns() {
+        String[] patternSegments = {"a", "b", "*", "**", "{id}", "a*", "?"};
+        String[] pathSegments = {"a", "b", "ab", "1", ""};
+        Random random = new Random(20240601L);
+        for (int i = 0; i < 5000; i++) {
+            String pattern = randomPath(random, patternSegments);
+            String path = randomPath(random, pathSegments);
+            assertEquals(ANT.match(pattern, path), matches(pattern, path), pattern + " ~ " + path);
+        }
+    }
+
+    private static String randomPath(Random random, String[] segments) {
+        StringBuilder path = new StringBuilder();
+        int count = random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            path.append('/').append(segments[random.nextInt(segments.length)]);
+        }
+        if (count == 0 || random.nextInt(4) == 0) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+
+    private static boolean matches(String pattern, String path) {
+        RoleRegistry roleRegistry = new RoleRegistry();
+        PermissionTrie trie = PermissionTrie.compile(List.of(new ApiPattern("GET", pattern, Set.of("R"))), roleRegistry);
+        return RoleBits.contains(trie.match("GET", path), roleRegistry.intern("R"));
+    }
+}
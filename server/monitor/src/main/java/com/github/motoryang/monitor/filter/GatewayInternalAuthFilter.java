@@ -1,6 +1,8 @@
 package com.github.motoryang.monitor.filter;
 
 import com.github.motoryang.common.core.constants.Constants;
+import com.github.motoryang.common.core.context.UserContextCodec;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,12 +16,15 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
 import java.util.List;
 
 /**
  * 网关内部鉴权过滤器
  * <p>
- * 验证来自网关的请求，如果携带正确的内部密钥，则自动完成认证，
+ * 验证来自网关的请求，如果携带网关签名的用户上下文（X-User-Context）或正确的内部密钥，则自动完成认证，
  * 允许通过 Postman 等工具经由网关访问 monitor 的 API
  *
  * @author motoryang
@@ -30,14 +35,22 @@ public class GatewayInternalAuthFilter extends OncePerRequestFilter {
     @Value("${auth.internal.secret}")
     private String internalSecret;
 
+    @Value("${auth.internal.context-max-age:5m}")
+    private Duration contextMaxAge;
+
+    private UserContextCodec userContextCodec;
+
+    @PostConstruct
+    public void init() {
+        this.userContextCodec = new UserContextCodec(internalSecret, contextMaxAge.toMillis());
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
-        String headerSecret = request.getHeader(Constants.INTERNAL_TOKEN_HEADER);
-
-        // 如果携带了正确的网关内部密钥，自动完成认证
-        if (StringUtils.hasText(internalSecret) && internalSecret.equals(headerSecret)) {
+        // 如果携带了网关签名的用户上下文或正确的内部密钥，自动完成认证
+        if (fromGateway(request)) {
             // 创建一个具有管理员权限的认证对象
             UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                     "gateway-internal",
@@ -49,4 +62,15 @@ public class GatewayInternalAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private boolean fromGateway(HttpServletRequest request) {
+        String userContext = request.getHeader(UserContextCodec.HEADER);
+        if (StringUtils.hasText(userContext)) {
+            return userContextCodec.decode(userContext, System.currentTimeMillis()) != null;
+        }
+        String headerSecret = request.getHeader(Constants.INTERNAL_TOKEN_HEADER);
+        return StringUtils.hasText(internalSecret) && headerSecret != null
+                && MessageDigest.isEqual(internalSecret.getBytes(StandardCharsets.UTF_8),
+                headerSecret.getBytes(StandardCharsets.UTF_8));
+    }
 }
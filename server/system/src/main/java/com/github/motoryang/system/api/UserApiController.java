@@ -1,9 +1,7 @@
 package com.github.motoryang.system.api;
 
 import com.github.motoryang.common.core.result.RestResult;
-import com.github.motoryang.system.modules.permission.mapper.PermissionMapper;
-import com.github.motoryang.system.modules.relation.mapper.UserRoleMapper;
-import com.github.motoryang.system.modules.user.entity.User;
+import com.github.motoryang.system.modules.user.model.vo.UserAuthVO;
 import com.github.motoryang.system.modules.user.service.IUserService;
 import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +11,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -31,8 +31,6 @@ import java.util.List;
 public class UserApiController {
 
     private final IUserService userService;
-    private final UserRoleMapper userRoleMapper;
-    private final PermissionMapper permissionMapper;
 
     /**
      * 根据用户名获取用户信息（用于登录认证）
@@ -44,29 +42,57 @@ public class UserApiController {
     @GetMapping("/user/username/{username}")
     public RestResult<UserAuthInfo> getUserByUsername(
             @Parameter(description = "用户名", required = true) @PathVariable String username) {
-        User user = userService.getByUsername(username);
+        // 用户行、角色编码、权限编码一次查询取回，并按用户名短期缓存
+        UserAuthVO user = userService.getAuthInfo(username);
         if (user == null) {
             return RestResult.fail(1001, "用户不存在");
         }
 
-        // 查询用户的角色编码列表
-        List<String> roles = userRoleMapper.selectRoleKeysByUserId(user.getId());
-        // 查询用户的权限编码列表
-        List<String> permissions = permissionMapper.selectPermCodesByUserId(user.getId());
-
         UserAuthInfo authInfo = new UserAuthInfo(
-                user.getId(),
-                user.getUsername(),
-                user.getPassword(),
-                user.getNickname(),
-                user.getStatus(),
-                roles,
-                permissions
+                user.id(),
+                user.username(),
+                user.password(),
+                user.nickname(),
+                user.status(),
+                user.roles(),
+                user.permissions()
         );
 
         return RestResult.ok(authInfo);
     }
 
+    /**
+     * 替换密码哈希（登录时按新强度重新哈希）
+     * <p>
+     * 仅当库中哈希仍为 currentHash 时更新，避免覆盖期间被修改或重置的密码
+     *
+     * @param id      用户ID
+     * @param upgrade 当前哈希与新哈希
+     * @return 是否已更新
+     */
+    @Operation(summary = "替换密码哈希", description = "内部接口，用于登录成功后按新的哈希强度重新哈希")
+    @PutMapping("/user/{id}/password-hash")
+    public RestResult<Boolean> upgradePasswordHash(
+            @Parameter(description = "用户ID", required = true) @PathVariable String id,
+            @RequestBody PasswordHashUpgrade upgrade) {
+        return RestResult.ok(userService.upgradePasswordHash(id, upgrade.currentHash(), upgrade.newHash()));
+    }
+
+    /**
+     * 密码哈希替换请求
+     *
+     * @param currentHash 当前哈希
+     * @param newHash     新哈希
+     */
+    @Schema(description = "密码哈希替换请求")
+    public record PasswordHashUpgrade(
+            @Schema(description = "当前哈希")
+            String currentHash,
+            @Schema(description = "新哈希")
+            String newHash
+    ) {
+    }
+
     /**
      * 用户认证信息
      *
@@ -7,13 +7,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 权限缓存处理器
@@ -23,6 +28,11 @@ import java.util.Map;
  * Key: perm:api:roles (HASH)
  * Field: GET:/api/user/**
  * Value: ADMIN,USER
+ * <p>
+ * 每次刷新后递增 perm:api:version，网关据此跳过未变化的重载
+ * <p>
+ * 每次刷新写入独立的临时 key 再 RENAME，多个实例或多次提交并发刷新时互不覆盖；
+ * 本实例内的刷新串行执行，后开始的刷新总是读到更新的数据库状态并最后替换
  *
  * @author motoryang
  */
@@ -32,11 +42,25 @@ import java.util.Map;
 public class PermissionCacheLoader implements ApplicationRunner {
 
     private static final String CACHE_KEY = "perm:api:roles";
+    private static final String VERSION_KEY = "perm:api:version";
+    private static final String STAGING_KEY_PREFIX = CACHE_KEY + ":staging:";
+    // 进程在写入与替换之间退出时，临时 key 自行过期
+    private static final Duration STAGING_TTL = Duration.ofMinutes(5);
+
+    /**
+     * KEYS[1]：临时 key，KEYS[2]：缓存 key；替换并清除随 RENAME 带过来的过期时间
+     */
+    private static final RedisScript<Long> PUBLISH_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('RENAME', KEYS[1], KEYS[2])
+            return redis.call('PERSIST', KEYS[2])
+            """, Long.class);
 
     private final ResourceMapper resourceMapper;
     private final StringRedisTemplate redisTemplate;
     private final PermissionEventProducer producer;
 
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
     @Override
     public void run(ApplicationArguments args) {
         refreshCache();
@@ -47,6 +71,7 @@ public class PermissionCacheLoader implements ApplicationRunner {
      */
     public void refreshCache() {
         log.info("开始刷新权限缓存到 Redis...");
+        refreshLock.lock();
         try {
             // 查询所有 API 资源与角色的映射关系
             List<Map<String, String>> mappings = resourceMapper.selectApiRoleMappings();
@@ -61,16 +86,24 @@ public class PermissionCacheLoader implements ApplicationRunner {
                 }
             }
 
-            // 清空旧缓存并写入新数据
-            redisTemplate.delete(CACHE_KEY);
-            if (!cacheData.isEmpty()) {
-                redisTemplate.opsForHash().putAll(CACHE_KEY, cacheData);;
-                producer.publishRefresh();
+            // 先写入临时 key 再原子替换，网关任何时刻都不会读到清空后的半成品
+            if (cacheData.isEmpty()) {
+                redisTemplate.delete(CACHE_KEY);
+            } else {
+                String stagingKey = STAGING_KEY_PREFIX + UUID.randomUUID();
+                redisTemplate.opsForHash().putAll(stagingKey, cacheData);
+                redisTemplate.expire(stagingKey, STAGING_TTL);
+                redisTemplate.execute(PUBLISH_SCRIPT, List.of(stagingKey, CACHE_KEY));
             }
+            // 版本号单调递增，网关版本一致时跳过重载
+            Long version = redisTemplate.opsForValue().increment(VERSION_KEY);
+            producer.publishRefresh();
 
-            log.info("权限缓存刷新完成，共 {} 条 API 规则", cacheData.size());
+            log.info("权限缓存刷新完成，共 {} 条 API 规则，version={}", cacheData.size(), version);
         } catch (Exception e) {
             log.error("刷新权限缓存失败", e);
+        } finally {
+            refreshLock.unlock();
         }
     }
 
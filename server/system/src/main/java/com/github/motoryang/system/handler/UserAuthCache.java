@@ -0,0 +1,122 @@
+package com.github.motoryang.system.handler;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.motoryang.system.message.model.UserChangeEvent;
+import com.github.motoryang.system.message.producer.UserEventProducer;
+import com.github.motoryang.system.modules.user.model.vo.UserAuthVO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 用户认证投影缓存
+ * <p>
+ * 按用户名缓存登录 / 刷新令牌所需的用户行、角色与权限，并发的同名查询只回源一次。
+ * 修改用户、角色或权限后在事务提交后失效：用户级变更只失效相关用户，
+ * 角色 / 权限定义变更影响的用户无法直接确定，整体清空。
+ * <p>
+ * 失效的同时广播 {@link UserChangeEvent}，每个 system 实例（含本实例）与 auth 服务都据此失效本地缓存；
+ * 事件丢失或尚未到达时最多延迟 ttl 生效，因此 ttl 保持在几秒
+ */
+@Component
+public class UserAuthCache {
+
+    @Value("${system.user-auth-cache.ttl:5s}")
+    private Duration ttl;
+
+    @Value("${system.user-auth-cache.max-size:10000}")
+    private long maxSize;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private UserEventProducer userEventProducer;
+
+    // 用户名 -> 认证投影
+    private Cache<String, UserAuthVO> cache;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "system.user.auth");
+    }
+
+    /**
+     * 读取缓存，未命中时调用 loader 回源（loader 返回 null 表示用户不存在，不缓存）
+     */
+    public UserAuthVO get(String username, Function<String, UserAuthVO> loader) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            return loader.apply(username);
+        }
+        return cache.get(username, loader);
+    }
+
+    /**
+     * 事务提交后失效指定用户
+     */
+    public void evictUsersAfterCommit(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(Set.copyOf(userIds));
+        afterCommit(() -> evictUsers(ids), UserChangeEvent.ofUsers(ids));
+    }
+
+    /**
+     * 事务提交后整体清空（角色 / 权限定义变更）
+     */
+    public void evictAllAfterCommit() {
+        afterCommit(this::evictAll, UserChangeEvent.ofAll());
+    }
+
+    /**
+     * 立即失效指定用户（本地提交或收到用户变更事件时调用）
+     */
+    public void evictUsers(Collection<String> userIds) {
+        Set<String> ids = Set.copyOf(userIds);
+        cache.asMap().values().removeIf(info -> ids.contains(info.id()));
+    }
+
+    /**
+     * 立即整体清空
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private void afterCommit(Runnable eviction, UserChangeEvent event) {
+        Runnable task = () -> {
+            eviction.run();
+            userEventProducer.publishChange(event);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            task.run();
+                        }
+                    }
+            );
+        } else {
+            task.run();
+        }
+    }
+}
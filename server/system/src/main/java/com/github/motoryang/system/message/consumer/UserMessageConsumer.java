@@ -0,0 +1,40 @@
+package com.github.motoryang.system.message.consumer;
+
+import com.github.motoryang.system.handler.UserAuthCache;
+import com.github.motoryang.system.message.model.UserChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+
+import java.util.function.Consumer;
+
+/**
+ * 用户消息消费者
+ * <p>
+ * 接收任意 system 实例广播的用户变更事件，失效本实例的用户认证投影缓存
+ */
+@Slf4j
+@Configuration
+public class UserMessageConsumer {
+
+    private final UserAuthCache userAuthCache;
+
+    public UserMessageConsumer(UserAuthCache userAuthCache) {
+        this.userAuthCache = userAuthCache;
+    }
+
+    @Bean
+    Consumer<Message<UserChangeEvent>> userAuthSync() {
+        return message -> {
+            UserChangeEvent event = message.getPayload();
+            log.debug("[message-consumer-userAuthSync] 用户变更: {}", event);
+            if (event.all()) {
+                userAuthCache.evictAll();
+            } else if (event.userIds() != null) {
+                userAuthCache.evictUsers(event.userIds());
+            }
+        };
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.github.motoryang.system.message.model;
+
+import java.util.List;
+
+/**
+ * 用户认证信息变更事件
+ * <p>
+ * 用户、角色或权限变更提交后广播，auth 服务据此失效本地缓存的用户认证信息
+ *
+ * @param userIds 受影响的用户ID，all 为 true 时忽略
+ * @param all     角色 / 权限定义变更，无法确定受影响的用户，全部失效
+ */
+public record UserChangeEvent(
+        List<String> userIds,
+        boolean all
+) {
+
+    public static UserChangeEvent ofUsers(List<String> userIds) {
+        return new UserChangeEvent(List.copyOf(userIds), false);
+    }
+
+    public static UserChangeEvent ofAll() {
+        return new UserChangeEvent(List.of(), true);
+    }
+}
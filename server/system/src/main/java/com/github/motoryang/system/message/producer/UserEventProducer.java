@@ -0,0 +1,36 @@
+package com.github.motoryang.system.message.producer;
+
+import com.github.motoryang.system.message.model.UserChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户事件生产者
+ */
+@Slf4j
+@Component
+public class UserEventProducer {
+
+    private final StreamBridge streamBridge;
+
+    public UserEventProducer(StreamBridge streamBridge) {
+        this.streamBridge = streamBridge;
+    }
+
+    public void publishChange(UserChangeEvent event) {
+        log.debug("[message-producer-userSync] 发送用户变更事件: {}", event);
+        Message<UserChangeEvent> message = MessageBuilder.withPayload(event).build();
+        // 发送失败不影响业务：auth 服务的本地缓存最多延迟其 TTL 生效
+        try {
+            if (!streamBridge.send("userSync-out-0", message)) {
+                log.warn("[message-producer-userSync] 用户变更事件发送失败: {}", event);
+            }
+        } catch (Exception e) {
+            log.warn("[message-producer-userSync] 用户变更事件发送失败: {}", event, e);
+        }
+    }
+
+}
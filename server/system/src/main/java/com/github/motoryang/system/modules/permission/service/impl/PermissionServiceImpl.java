@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.github.motoryang.common.core.exception.BusinessException;
 import com.github.motoryang.common.core.result.ResultCode;
 import com.github.motoryang.system.handler.PermissionCacheLoader;
+import com.github.motoryang.system.handler.UserAuthCache;
 import com.github.motoryang.system.modules.permission.converter.PermissionConverter;
 import com.github.motoryang.system.modules.permission.entity.Permission;
 import com.github.motoryang.system.modules.permission.mapper.PermissionMapper;
@@ -37,6 +38,7 @@ public class PermissionServiceImpl implements IPermissionService {
     private final PermissionResourceMapper permissionResourceMapper;
     private final PermissionConverter permissionConverter;
     private final PermissionCacheLoader cacheLoader;
+    private final UserAuthCache userAuthCache;
 
     @Override
     public IPage<PermissionVO> page(int pageNum, int pageSize, PermissionQueryDTO query) {
@@ -106,6 +108,8 @@ public class PermissionServiceImpl implements IPermissionService {
 
         permissionConverter.updateEntity(dto, permission);
         permissionMapper.updateById(permission);
+        // 权限编码或状态可能变化，所有用户的认证投影都需重新加载
+        userAuthCache.evictAllAfterCommit();
 
         // 更新权限资源关联
         if (dto.resourceIds() != null) {
@@ -141,6 +145,7 @@ public class PermissionServiceImpl implements IPermissionService {
         // 逻辑删除权限
         permissionMapper.deleteById(id);
         cacheLoader.refreshCacheAfterCommit();
+        userAuthCache.evictAllAfterCommit();
     }
 
     @Override
@@ -151,6 +156,7 @@ public class PermissionServiceImpl implements IPermissionService {
             permissionResourceMapper.deleteByPermissionId(id);
         }
         permissionMapper.deleteByIds(ids);
+        userAuthCache.evictAllAfterCommit();
     }
 
     @Override
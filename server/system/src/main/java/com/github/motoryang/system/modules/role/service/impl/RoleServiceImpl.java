@@ -6,6 +6,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.github.motoryang.common.core.exception.BusinessException;
 import com.github.motoryang.system.handler.PermissionCacheLoader;
+import com.github.motoryang.system.handler.UserAuthCache;
 import com.github.motoryang.system.modules.relation.entity.RoleMenu;
 import com.github.motoryang.system.modules.relation.entity.RolePermission;
 import com.github.motoryang.system.modules.relation.entity.UserRole;
@@ -48,6 +49,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
     private final UserConverter userConverter;
     private final UserRoleMapper userRoleMapper;
     private final PermissionCacheLoader cacheLoader;
+    private final UserAuthCache userAuthCache;
 
     @Override
     public IPage<RoleVO> pageQuery(RoleQueryDTO dto) {
@@ -155,6 +157,8 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
                 saveRolePermissions(id, dto.permissionIds());
             }
         }
+        // 角色编码、状态或权限可能变化，所有用户的认证投影都需重新加载
+        userAuthCache.evictAllAfterCommit();
 
         return roleConverter.toVO(role);
     }
@@ -176,6 +180,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
         removeById(id);
         // 刷新权限缓存
         cacheLoader.refreshCacheAfterCommit();
+        userAuthCache.evictAllAfterCommit();
     }
 
     @Override
@@ -231,12 +236,14 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
                 })
                 .toList();
         userRoleMapper.insertBatch(userRoles);
+        userAuthCache.evictUsersAfterCommit(userIds);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void removeUserFromRole(String roleId, String userId) {
         userRoleMapper.deleteByRoleIdAndUserId(roleId, userId);
+        userAuthCache.evictUsersAfterCommit(List.of(userId));
     }
 
     @Override
@@ -246,6 +253,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
             return;
         }
         userIds.forEach(userId -> userRoleMapper.deleteByRoleIdAndUserId(roleId, userId));
+        userAuthCache.evictUsersAfterCommit(userIds);
     }
 
     @Override
@@ -262,6 +270,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
         if (!newIds.isEmpty()) {
             saveRolePermissions(roleId, newIds);
             cacheLoader.refreshCacheAfterCommit();
+            userAuthCache.evictAllAfterCommit();
         }
     }
 
@@ -272,6 +281,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements IR
                 .eq(RolePermission::getRoleId, roleId)
                 .eq(RolePermission::getPermissionId, permissionId));
         cacheLoader.refreshCacheAfterCommit();
+        userAuthCache.evictAllAfterCommit();
     }
 
     private void saveRoleMenus(String roleId, List<String> menuIds) {
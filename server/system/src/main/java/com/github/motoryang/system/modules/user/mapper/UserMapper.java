@@ -6,6 +6,9 @@ import com.github.motoryang.system.modules.user.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 用户 Mapper
  */
@@ -35,6 +38,13 @@ public interface UserMapper extends BaseMapper<User> {
 
     User selectUserById(@Param("id") String id);
 
+    /**
+     * 一次查询取回认证所需的用户行、角色编码与权限编码（登录 / 刷新令牌时使用）
+     * <p>
+     * 每行的 kind 区分 user / role / perm，user 行携带用户字段，其余行的 code 为角色或权限编码
+     */
+    List<Map<String, Object>> selectAuthRowsByUsername(@Param("username") String username);
+
     /**
      * 分页查询指定部门下的用户
      */
@@ -0,0 +1,17 @@
+package com.github.motoryang.system.modules.user.model.vo;
+
+import java.util.List;
+
+/**
+ * 用户认证投影（登录 / 刷新令牌时使用）
+ */
+public record UserAuthVO(
+        String id,
+        String username,
+        String password,
+        String nickname,
+        Integer status,
+        List<String> roles,
+        List<String> permissions
+) {
+}
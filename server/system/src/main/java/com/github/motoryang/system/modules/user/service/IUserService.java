@@ -6,6 +6,7 @@ import com.github.motoryang.system.modules.user.entity.User;
 import com.github.motoryang.system.modules.user.model.dto.UserCreateDTO;
 import com.github.motoryang.system.modules.user.model.dto.UserQueryDTO;
 import com.github.motoryang.system.modules.user.model.dto.UserUpdateDTO;
+import com.github.motoryang.system.modules.user.model.vo.UserAuthVO;
 import com.github.motoryang.system.modules.user.model.vo.UserDetailVO;
 import com.github.motoryang.system.modules.user.model.vo.UserVO;
 
@@ -29,6 +30,16 @@ public interface IUserService extends IService<User> {
 
     void resetPassword(String id, String newPassword);
 
+    /**
+     * 替换密码哈希（仅当当前哈希未变化时生效）
+     */
+    boolean upgradePasswordHash(String id, String currentHash, String newHash);
+
+    /**
+     * 根据用户名获取认证投影（用户 + 角色编码 + 权限编码，一次查询并短期缓存），用户不存在时返回 null
+     */
+    UserAuthVO getAuthInfo(String username);
+
     /**
      * 根据用户名获取用户（用于认证）
      */
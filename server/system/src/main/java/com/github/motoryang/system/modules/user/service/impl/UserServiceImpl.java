@@ -1,10 +1,12 @@
 package com.github.motoryang.system.modules.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.github.motoryang.common.core.exception.BusinessException;
+import com.github.motoryang.system.handler.UserAuthCache;
 import com.github.motoryang.system.modules.dept.entity.Dept;
 import com.github.motoryang.system.modules.dept.mapper.DeptMapper;
 import com.github.motoryang.system.modules.relation.entity.UserDept;
@@ -19,6 +21,7 @@ import com.github.motoryang.system.modules.user.mapper.UserMapper;
 import com.github.motoryang.system.modules.user.model.dto.UserCreateDTO;
 import com.github.motoryang.system.modules.user.model.dto.UserQueryDTO;
 import com.github.motoryang.system.modules.user.model.dto.UserUpdateDTO;
+import com.github.motoryang.system.modules.user.model.vo.UserAuthVO;
 import com.github.motoryang.system.modules.user.model.vo.UserDeptVO;
 import com.github.motoryang.system.modules.user.model.vo.UserDetailVO;
 import com.github.motoryang.system.modules.user.model.vo.UserVO;
@@ -48,6 +51,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
     private final RoleMapper roleMapper;
     private final DeptMapper deptMapper;
     private final PasswordEncoder passwordEncoder;
+    private final UserAuthCache userAuthCache;
 
     @Override
     public IPage<UserVO> pageQuery(UserQueryDTO dto) {
@@ -231,6 +235,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
                 saveUserRoles(id, dto.roleIds());
             }
         }
+        userAuthCache.evictUsersAfterCommit(List.of(id));
 
         return userConverter.toVO(user);
     }
@@ -251,6 +256,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
 
         // 逻辑删除用户
         removeById(id);
+        userAuthCache.evictUsersAfterCommit(List.of(id));
     }
 
     @Override
@@ -262,6 +268,27 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
 
         user.setPassword(passwordEncoder.encode(newPassword));
         updateById(user);
+        userAuthCache.evictUsersAfterCommit(List.of(id));
+    }
+
+    @Override
+    public boolean upgradePasswordHash(String id, String currentHash, String newHash) {
+        if (!StringUtils.hasText(currentHash) || !StringUtils.hasText(newHash)) {
+            return false;
+        }
+        boolean updated = update(new LambdaUpdateWrapper<User>()
+                .eq(User::getId, id)
+                .eq(User::getPassword, currentHash)
+                .set(User::getPassword, newHash));
+        if (updated) {
+            userAuthCache.evictUsersAfterCommit(List.of(id));
+        }
+        return updated;
+    }
+
+    @Override
+    public UserAuthVO getAuthInfo(String username) {
+        return userAuthCache.get(username, this::loadAuthInfo);
     }
 
     @Override
@@ -276,6 +303,35 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
                 .eq(User::getUsername, username)) > 0;
     }
 
+    private UserAuthVO loadAuthInfo(String username) {
+        List<Map<String, Object>> rows = baseMapper.selectAuthRowsByUsername(username);
+        Map<String, Object> userRow = null;
+        List<String> roles = new ArrayList<>();
+        List<String> permissions = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            switch (String.valueOf(row.get("kind"))) {
+                case "user" -> userRow = row;
+                case "role" -> roles.add((String) row.get("code"));
+                case "perm" -> permissions.add((String) row.get("code"));
+                default -> {
+                }
+            }
+        }
+        if (userRow == null) {
+            return null;
+        }
+        Object status = userRow.get("status");
+        return new UserAuthVO(
+                (String) userRow.get("id"),
+                (String) userRow.get("username"),
+                (String) userRow.get("password"),
+                (String) userRow.get("nickname"),
+                status instanceof Number number ? number.intValue() : null,
+                List.copyOf(roles),
+                List.copyOf(permissions)
+        );
+    }
+
     private void saveUserRoles(String userId, List<String> roleIds) {
         List<UserRole> userRoles = roleIds.stream()
                 .map(roleId -> {